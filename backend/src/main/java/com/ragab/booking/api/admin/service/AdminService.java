@@ -2,6 +2,8 @@ package com.ragab.booking.api.admin.service;
 
 import com.ragab.booking.api.admin.dto.UserSearchResponse;
 import com.ragab.booking.common.response.PageResponse;
+import com.ragab.booking.config.security.userdetails.CachingUserDetailsService;
+import com.ragab.booking.config.security.userdetails.SecurityVersionCache;
 import com.ragab.booking.core.user.mapper.UserMapper;
 import com.ragab.booking.core.user.model.Users;
 import com.ragab.booking.core.user.repository.UserRepository;
@@ -22,6 +24,8 @@ import java.util.List;
 public class AdminService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final SecurityVersionCache securityVersionCache;
+    private final CachingUserDetailsService userDetailsService;
 
     public PageResponse<UserSearchResponse> searchUserByEmail(String email, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
@@ -47,6 +51,9 @@ public class AdminService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
         user.setAdmin(!user.isAdmin());
+        user.bumpSecurityVersion();
+        securityVersionCache.invalidate(id);
+        userDetailsService.invalidate(user.getEmail());
         Users savedUser = userRepository.save(user);
         return userMapper.toSearchResponse(savedUser);
     }
@@ -10,6 +10,8 @@ import com.ragab.booking.common.exception.custom.TokenExpiredException;
 import com.ragab.booking.common.exception.custom.user.InvalidAgeException;
 import com.ragab.booking.common.exception.custom.user.InvalidGenderException;
 import com.ragab.booking.config.security.jwt.JwtService;
+import com.ragab.booking.config.security.userdetails.CachingUserDetailsService;
+import com.ragab.booking.config.security.userdetails.SecurityVersionCache;
 import com.ragab.booking.config.security.userdetails.UserPrincipal;
 import com.ragab.booking.core.auth.refresh.RefreshToken;
 import com.ragab.booking.core.auth.refresh.RefreshTokenService;
@@ -55,6 +57,8 @@ public class AuthenticationService {
     private final JwtService jwtService;
     private final TransactionTemplate transactionTemplate;
     private final RefreshTokenService refreshTokenService;
+    private final SecurityVersionCache securityVersionCache;
+    private final CachingUserDetailsService userDetailsService;
     @Value("${application.mailing.frontend.url}")
     private String Url;
 
@@ -188,7 +192,8 @@ public class AuthenticationService {
     }
 
     public void logout(String refreshToken) {
-        refreshTokenService.revokeRefreshToken(refreshToken);
+        RefreshToken revoked = refreshTokenService.revokeRefreshToken(refreshToken);
+        jwtService.forgetVerifiedTokens(revoked.getUser().getEmail());
     }
 
 
@@ -209,6 +214,7 @@ public class AuthenticationService {
                     .orElseThrow(() -> new UsernameNotFoundException("User not found"));
             user.setEnabled(true);
             userRepository.save(user);
+            userDetailsService.invalidate(user.getEmail());
             savedToken.setValidatedAt(LocalDateTime.now());
             tokenRepository.save(savedToken);
             return null;
@@ -253,7 +259,10 @@ public class AuthenticationService {
 
         Users user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.bumpSecurityVersion();
         userRepository.save(user);
+        securityVersionCache.invalidate(user.getId());
+        userDetailsService.invalidate(user.getEmail());
 
         resetToken.setValidatedAt(LocalDateTime.now());
         tokenRepository.save(resetToken);
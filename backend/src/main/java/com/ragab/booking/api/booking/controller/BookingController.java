@@ -1,7 +1,18 @@
 package com.ragab.booking.api.booking.controller;
 
+import com.ragab.booking.api.booking.dto.BatchBookingRequest;
+import com.ragab.booking.api.booking.dto.BatchBookingResponse;
 import com.ragab.booking.api.booking.dto.BookedResponse;
+import com.ragab.booking.api.booking.dto.BookingRequestResponse;
+import com.ragab.booking.api.booking.dto.HoldResponse;
+import com.ragab.booking.api.booking.dto.WaitlistResponse;
 import com.ragab.booking.api.booking.service.BookingService;
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
+import com.ragab.booking.api.booking.service.SeatHoldService;
+import com.ragab.booking.api.booking.service.WaitlistService;
+import com.ragab.booking.api.idempotency.service.IdempotencyService;
+import com.ragab.booking.common.exception.custom.IdempotencyInProgressException;
+import com.ragab.booking.common.response.CursorPageResponse;
 import com.ragab.booking.common.response.PageResponse;
 import com.ragab.booking.config.security.userdetails.UserPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
@@ -9,14 +20,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static com.ragab.booking.common.response.PageResponse.MAX_SIZE;
 
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @RestController
@@ -26,34 +50,209 @@ import java.net.URI;
 @SecurityRequirement(name = "Bearer Authentication")
 public class BookingController {
     private final BookingService bookingService;
+    private final FlashSaleEngine flashSaleEngine;
+    private final SeatHoldService seatHoldService;
+    private final WaitlistService waitlistService;
+    private final IdempotencyService idempotencyService;
+
+    @Value("${application.booking.flash-sale.result-wait-ms}")
+    private long flashSaleResultWaitMs;
 
     @Operation(summary = "Get booked events for a user", description = "Fetches a paginated list of booked events")
     @GetMapping
     public ResponseEntity<PageResponse<BookedResponse>> getBookings(
-            @RequestParam(name = "page", defaultValue = "0", required = false) int page,
-            @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+            @RequestParam(name = "page", defaultValue = "0", required = false)
+            @PositiveOrZero(message = "Page must not be negative")
+            int page,
+            @RequestParam(name = "size", defaultValue = "10", required = false)
+            @Min(value = 1, message = "Size must be at least 1")
+            @Max(value = MAX_SIZE, message = "Size must not exceed " + MAX_SIZE)
+            int size,
             @AuthenticationPrincipal UserPrincipal userPrincipal
     ) {
         Integer userId = userPrincipal.user().getId();
         return ResponseEntity.ok(bookingService.getBookings(userId, page, size));
     }
 
-    @Operation(summary = "Book an event", description = "Allows users to book an event")
+    @Operation(
+            summary = "Scroll through booked events",
+            description = "Returns bookings newest first using an opaque cursor instead of page numbers; pass the returned nextCursor to get the following page"
+    )
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<BookedResponse>> scrollBookings(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false)
+            @Min(value = 1, message = "Size must be at least 1")
+            @Max(value = MAX_SIZE, message = "Size must not exceed " + MAX_SIZE)
+            int size,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        Integer userId = userPrincipal.user().getId();
+        return ResponseEntity.ok(bookingService.scrollBookings(userId, cursor, size));
+    }
+
+    @Operation(
+            summary = "Book an event",
+            description = "Allows users to book an event. Bookings for high-demand events are queued; if the result is not ready in time the request is answered with 202 and a ticket to poll. Retries sent with the same Idempotency-Key header get the original booking instead of booking twice"
+    )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Event booked successfully"),
+            @ApiResponse(responseCode = "202", description = "Booking request queued, poll the returned ticket"),
             @ApiResponse(responseCode = "400", description = "Event has already been booked"),
-            @ApiResponse(responseCode = "401", description = "User not authenticated")
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "409", description = "Event is sold out, or an earlier request with the same idempotency key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key was used for a different request"),
+            @ApiResponse(responseCode = "503", description = "Booking queue for the event is full")
     })
     @PostMapping("/{eventId}/book")
-    public ResponseEntity<Void> bookEvent(
+    public DeferredResult<ResponseEntity<BookingRequestResponse>> bookEvent(
             @PathVariable Integer eventId,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        Integer userId = userPrincipal.user().getId();
+        AtomicReference<FlashSaleEngine.Ticket> queued = new AtomicReference<>();
+        Supplier<CompletableFuture<Integer>> booking = () -> {
+            if (!flashSaleEngine.isHighDemand(eventId)) {
+                return CompletableFuture.completedFuture(bookingService.bookEvent(userId, eventId));
+            }
+            FlashSaleEngine.Ticket ticket = flashSaleEngine.submit(userId, eventId);
+            queued.set(ticket);
+            return ticket.result();
+        };
+        CompletableFuture<Integer> bookingId = idempotencyKey == null
+                ? booking.get()
+                : idempotencyService.execute(userId, idempotencyKey, "book:" + eventId, booking);
+
+        DeferredResult<ResponseEntity<BookingRequestResponse>> result = new DeferredResult<>(
+                flashSaleResultWaitMs,
+                () -> {
+                    FlashSaleEngine.Ticket ticket = queued.get();
+                    if (ticket == null) {
+                        // a retry waiting on the request that queued the ticket
+                        return new IdempotencyInProgressException("The booking request is still queued");
+                    }
+                    return ResponseEntity.accepted()
+                            .location(URI.create("api/v1/bookings/requests/" + ticket.id()))
+                            .body(ticket.toResponse());
+                }
+        );
+        bookingId.whenComplete((id, ex) -> {
+            if (ex != null) {
+                result.setErrorResult(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+            } else {
+                result.setResult(created(id));
+            }
+        });
+        return result;
+    }
+
+    @Operation(
+            summary = "Book several events at once",
+            description = "Books a cart of events in one transaction and reports the outcome per event. With allOrNothing set, nothing is booked unless every event can be"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Per-event results; check the booked flag and item statuses"),
+            @ApiResponse(responseCode = "400", description = "Invalid cart"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBookingResponse> bookEvents(
+            @RequestBody @Valid BatchBookingRequest request,
             @AuthenticationPrincipal UserPrincipal userPrincipal
     ) {
         Integer userId = userPrincipal.user().getId();
-        Integer bookingId = bookingService.bookEvent(userId, eventId);
+        return ResponseEntity.ok(bookingService.bookEvents(userId, request.eventIds(), request.allOrNothing()));
+    }
+
+    @Operation(summary = "Check a queued booking", description = "Returns the state of a booking request queued for a high-demand event")
+    @GetMapping("/requests/{ticket}")
+    public ResponseEntity<BookingRequestResponse> getBookingRequest(
+            @PathVariable String ticket,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        return ResponseEntity.ok(flashSaleEngine.status(ticket, userPrincipal.user().getId()));
+    }
+
+    @Operation(
+            summary = "Hold a seat",
+            description = "Sets a seat aside for the user for a limited time; confirm the hold before it expires to book it"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Seat held"),
+            @ApiResponse(responseCode = "400", description = "Event has already passed"),
+            @ApiResponse(responseCode = "409", description = "Event is already booked or held, or sold out")
+    })
+    @PostMapping("/{eventId}/hold")
+    public ResponseEntity<HoldResponse> holdSeat(
+            @PathVariable Integer eventId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        HoldResponse hold = seatHoldService.placeHold(userPrincipal.user().getId(), eventId);
+        return ResponseEntity.created(URI.create("api/v1/bookings/holds/" + hold.holdId())).body(hold);
+    }
+
+    @Operation(summary = "Confirm a seat hold", description = "Books the seat set aside by the hold")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Event booked successfully"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "410", description = "Hold has expired")
+    })
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<Void> confirmHold(
+            @PathVariable Integer holdId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        Integer bookingId = seatHoldService.confirmHold(userPrincipal.user().getId(), holdId);
         return ResponseEntity.created(URI.create("api/v1/event/" + bookingId + "/booked")).build();
     }
 
+    @Operation(summary = "Release a seat hold", description = "Gives the held seat back before the hold expires")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Hold released"),
+            @ApiResponse(responseCode = "404", description = "Hold not found")
+    })
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(
+            @PathVariable Integer holdId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        seatHoldService.releaseHold(userPrincipal.user().getId(), holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Join an event's waitlist",
+            description = "Queues the user for a sold-out event; when a booking is cancelled the first user in line is booked automatically and notified by email"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Joined the waitlist"),
+            @ApiResponse(responseCode = "400", description = "Event has passed or still has seats"),
+            @ApiResponse(responseCode = "409", description = "Event is already booked or the user is already waiting")
+    })
+    @PostMapping("/{eventId}/waitlist")
+    public ResponseEntity<WaitlistResponse> joinWaitlist(
+            @PathVariable Integer eventId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        WaitlistResponse entry = waitlistService.joinWaitlist(userPrincipal.user().getId(), eventId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(entry);
+    }
+
+    @Operation(summary = "Leave an event's waitlist")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Left the waitlist"),
+            @ApiResponse(responseCode = "404", description = "User is not on the waitlist")
+    })
+    @DeleteMapping("/{eventId}/waitlist")
+    public ResponseEntity<Void> leaveWaitlist(
+            @PathVariable Integer eventId,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
+    ) {
+        waitlistService.leaveWaitlist(userPrincipal.user().getId(), eventId);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(summary = "Cancel a booking", description = "Allows users to cancel their booking for an event")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Booking canceled successfully"),
@@ -71,4 +270,8 @@ public class BookingController {
         bookingService.cancelBooking(userPrincipal.user().getId(), bookingId);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<BookingRequestResponse> created(Integer bookingId) {
+        return ResponseEntity.created(URI.create("api/v1/event/" + bookingId + "/booked")).build();
+    }
 }
@@ -0,0 +1,18 @@
+package com.ragab.booking.api.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchBookingRequest(
+        @NotEmpty(message = "At least one event is required")
+        @Size(max = 50, message = "At most 50 events can be booked at once")
+        List<@NotNull(message = "Event id is required") Integer> eventIds,
+        /*
+         * Book nothing unless every event can be booked; otherwise book whatever is available.
+         */
+        boolean allOrNothing
+) {
+}
@@ -0,0 +1,23 @@
+package com.ragab.booking.api.booking.dto;
+
+import java.util.List;
+
+public record BatchBookingResponse(
+        boolean booked,
+        List<Item> items
+) {
+    public record Item(
+            Integer eventId,
+            Status status,
+            Integer bookingId
+    ) {
+    }
+
+    public enum Status {
+        BOOKED, ALREADY_BOOKED, SOLD_OUT, EVENT_PASSED, NOT_FOUND,
+        /**
+         * Could have been booked, but another event in an all-or-nothing batch could not.
+         */
+        SKIPPED
+    }
+}
@@ -0,0 +1,12 @@
+package com.ragab.booking.api.booking.dto;
+
+public record BookingRequestResponse(
+        String ticket,
+        Status status,
+        Integer bookingId,
+        String message
+) {
+    public enum Status {
+        PENDING, BOOKED, REJECTED
+    }
+}
@@ -0,0 +1,10 @@
+package com.ragab.booking.api.booking.dto;
+
+import java.time.LocalDateTime;
+
+public record HoldResponse(
+        Integer holdId,
+        Integer eventId,
+        LocalDateTime expiresAt
+) {
+}
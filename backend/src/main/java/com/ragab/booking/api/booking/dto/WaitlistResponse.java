@@ -0,0 +1,8 @@
+package com.ragab.booking.api.booking.dto;
+
+public record WaitlistResponse(
+        Integer entryId,
+        Integer eventId,
+        long ahead
+) {
+}
@@ -1,47 +1,91 @@
 package com.ragab.booking.api.booking.service;
 
+import com.ragab.booking.api.booking.dto.BatchBookingResponse;
+import com.ragab.booking.api.booking.dto.BatchBookingResponse.Status;
 import com.ragab.booking.api.booking.dto.BookedResponse;
 import com.ragab.booking.common.exception.custom.UnAuthorizedException;
 import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
 import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.common.response.Cursor;
+import com.ragab.booking.common.response.CursorPageResponse;
 import com.ragab.booking.common.response.PageResponse;
 import com.ragab.booking.core.booking.mapper.BookingMapper;
 import com.ragab.booking.core.booking.model.Booking;
+import com.ragab.booking.core.booking.model.BookingInsert;
+import com.ragab.booking.core.booking.model.CancellationOutcome;
 import com.ragab.booking.core.booking.repository.BookingRepository;
 import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.model.EventSeatCheck;
 import com.ragab.booking.core.event.repository.EventRepository;
-import com.ragab.booking.core.user.model.Users;
-import com.ragab.booking.core.user.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static com.ragab.booking.api.booking.dto.BatchBookingResponse.Status.*;
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+
+@Slf4j
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Service
 public class BookingService {
     private final BookingRepository bookingRepository;
     private final BookingMapper bookingMapper;
-    private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final CacheManager cacheManager;
+    private final WaitlistService waitlistService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.booking.bulk-cancel.chunk-size}")
+    private int bulkCancelChunkSize;
+
+    /**
+     * Corrects {@code booked_count} on events that drifted from their bookings,
+     * e.g. after bookings were removed outside the booking flow.
+     */
+    @Scheduled(cron = "${application.booking.booked-count.reconcile-cron}")
+    public void reconcileBookedCounts() {
+        int drifted = 0;
+        for (Integer eventId : eventRepository.findBookedCountDrift()) {
+            // the row lock comes first, so the recount cannot miss a booking committed meanwhile
+            drifted += Objects.requireNonNull(transactionTemplate.execute(status ->
+                    eventRepository.lockById(eventId).isPresent() ? eventRepository.recountBookedCount(eventId) : 0));
+        }
+        if (drifted > 0) {
+            log.warn("Corrected booked count on {} event(s)", drifted);
+            Objects.requireNonNull(cacheManager.getCache(EVENTS)).clear();
+        }
+    }
 
     @Transactional(readOnly = true)
     public PageResponse<BookedResponse> getBookings(Integer userId, int page, int size) {
         Pageable pageable = Pageable.ofSize(size).withPage(page);
-        Page<Booking> bookings = bookingRepository.findAllByUser_Id(userId, pageable);
-
-        List<BookedResponse> bookedResponses = bookings.stream()
-                .filter(booking -> booking.getEvent() != null)
-                .map(bookingMapper::toResponse)
-                .toList();
+        Page<BookedResponse> bookings = bookingRepository.findBookedResponses(userId, pageable);
         return new PageResponse<>(
-                bookedResponses,
+                bookings.getContent(),
                 bookings.getNumber(),
                 bookings.getSize(),
                 bookings.getTotalElements(),
@@ -51,49 +95,165 @@ public class BookingService {
         );
     }
 
+    @Transactional(readOnly = true)
+    public CursorPageResponse<BookedResponse> scrollBookings(Integer userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Booking> bookings;
+        if (cursor == null || cursor.isBlank()) {
+            bookings = bookingRepository.findKeysetPage(userId, limit);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            bookings = bookingRepository.findKeysetPageAfter(userId, position.timestamp(), position.id(), limit);
+        }
+
+        boolean last = bookings.size() <= size;
+        List<Booking> page = last ? bookings : bookings.subList(0, size);
+        String nextCursor = null;
+        if (!last) {
+            Booking lastBooking = page.get(page.size() - 1);
+            nextCursor = new Cursor(lastBooking.getCreatedDate(), lastBooking.getId()).encode();
+        }
+
+        return CursorPageResponse.<BookedResponse>builder()
+                .content(page.stream().map(bookingMapper::toResponse).toList())
+                .size(size)
+                .nextCursor(nextCursor)
+                .last(last)
+                .build();
+    }
+
+    /**
+     * Writes the booking and takes the seat in a single statement. The rejection reason is
+     * only looked up when nothing was booked.
+     */
+    @CacheEvict(cacheNames = EVENTS, key = "#eventId")
+    @Transactional
     public Integer bookEvent(Integer userId, Integer eventId) {
-        Users user = findUserById(userId);
+        BookingInsert inserted = bookingRepository.insertBooking(userId, eventId, LocalDateTime.now())
+                .orElseThrow(() -> rejection(userId, eventId));
+        if (!inserted.getSeated()) {
+            // the last seat went while this booking waited for the event row
+            throw new SoldOutException("Event is sold out");
+        }
+        return inserted.getId();
+    }
 
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
-        if (!event.isUpcoming()) {
-            throw new EventPassedException("Event passed: cannot book");
+    /**
+     * Books several events in one transaction. The events are checked and locked with one
+     * query, in id order so overlapping carts cannot deadlock, and every booking is written
+     * with one insert. Unless {@code allOrNothing} is set, whatever can be booked is booked.
+     */
+    @Transactional
+    public BatchBookingResponse bookEvents(Integer userId, List<Integer> eventIds, boolean allOrNothing) {
+        Set<Integer> distinctIds = new TreeSet<>(eventIds);
+        Map<Integer, EventSeatCheck> checks = eventRepository.lockSeatsForBooking(userId, distinctIds, LocalDateTime.now())
+                .stream()
+                .collect(Collectors.toMap(EventSeatCheck::getId, Function.identity()));
+
+        Map<Integer, Status> statuses = new LinkedHashMap<>();
+        for (Integer eventId : distinctIds) {
+            EventSeatCheck check = checks.get(eventId);
+            statuses.put(eventId, check == null ? NOT_FOUND
+                    : !check.getUpcoming() ? EVENT_PASSED
+                    : check.getBooked() ? ALREADY_BOOKED
+                    : !check.getAvailable() ? SOLD_OUT
+                    : BOOKED);
+        }
+        List<Integer> bookable = statuses.entrySet().stream()
+                .filter(entry -> entry.getValue() == BOOKED)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (allOrNothing && bookable.size() < distinctIds.size()) {
+            bookable.forEach(eventId -> statuses.put(eventId, SKIPPED));
+            bookable = List.of();
         }
-        Booking booking = bookingRepository.findByUser_IdAndEvent_Id(userId, eventId);
-        if (booking != null) {
-            throw new AlreadyBookedException("Event is already booked");
+
+        Map<Integer, Integer> bookingIds = new HashMap<>();
+        if (!bookable.isEmpty()) {
+            bookingRepository.insertBookings(userId, bookable)
+                    .forEach(booked -> bookingIds.put(booked.getEventId(), booked.getId()));
+            if (allOrNothing && bookingIds.size() < bookable.size()) {
+                // a concurrent request of the same user booked one of them first
+                throw new AlreadyBookedException("One of the events is already booked");
+            }
+        }
+        if (!bookingIds.isEmpty()) {
+            eventRepository.incrementBookedCounts(bookingIds.keySet());
+            Cache events = Objects.requireNonNull(cacheManager.getCache(EVENTS));
+            bookingIds.keySet().forEach(events::evict);
         }
 
-        return bookingRepository.saveAndFlush(Booking.builder()
-                .user(user)
-                .event(event)
-                .build()
-        ).getId();
+        List<BatchBookingResponse.Item> items = eventIds.stream()
+                .distinct()
+                .map(eventId -> {
+                    Integer bookingId = bookingIds.get(eventId);
+                    Status status = statuses.get(eventId) == BOOKED && bookingId == null
+                            ? ALREADY_BOOKED
+                            : statuses.get(eventId);
+                    return new BatchBookingResponse.Item(eventId, status, bookingId);
+                })
+                .toList();
+        return new BatchBookingResponse(!bookingIds.isEmpty(), items);
     }
 
+    /**
+     * Cancels with one conditional delete; the checks are only spelled out as errors when
+     * nothing was cancelled.
+     */
     @Transactional
     public void cancelBooking(Integer userId, Integer bookingId) {
-        Booking booking = bookingRepository.findByBookingId(bookingId)
+        CancellationOutcome outcome = bookingRepository.cancelBooking(userId, bookingId, LocalDateTime.now())
                 .orElseThrow(() -> new EntityNotFoundException("Booking not found"));
-
-        if (!booking.getUser().getId().equals(userId)) {
-            throw new UnAuthorizedException("You are not authorized to cancel this booking");
+        if (!outcome.getCancelled()) {
+            if (!outcome.getUserId().equals(userId)) {
+                throw new UnAuthorizedException("You are not authorized to cancel this booking");
+            }
+            if (outcome.getEventId() == null) {
+                throw new EntityNotFoundException("There is an issue with this event, please contact support");
+            }
+            if (!outcome.getUpcoming()) {
+                throw new EventPassedException("Event passed: cannot cancel booking");
+            }
+            // cancelled by a concurrent request
+            throw new EntityNotFoundException("Booking not found");
         }
 
-        Event event = booking.getEvent();
-        if (event == null) {
-            throw new EntityNotFoundException("There is an issue with this event, please contact support");
-        }
+        waitlistService.promoteNext(outcome.getEventId());
+        Objects.requireNonNull(cacheManager.getCache(EVENTS)).evict(outcome.getEventId());
+    }
 
-        if (!event.isUpcoming()) {
-            throw new EventPassedException("Event passed: cannot cancel booking");
-        }
+    /**
+     * Cancels every booking of the event, a chunk per transaction so that no single
+     * transaction holds the event row or a huge delete for long. Nobody is promoted
+     * off the waitlist.
+     *
+     * @return the number of bookings cancelled
+     */
+    public int cancelAllBookings(Integer eventId) {
+        int total = 0;
+        int cancelled;
+        do {
+            cancelled = Objects.requireNonNull(transactionTemplate.execute(
+                    status -> bookingRepository.cancelEventBookingsChunk(eventId, bulkCancelChunkSize)));
+            total += cancelled;
+        } while (cancelled == bulkCancelChunkSize);
 
-        bookingRepository.delete(booking);
+        if (total > 0) {
+            log.info("Cancelled {} booking(s) of event {}", total, eventId);
+            Objects.requireNonNull(cacheManager.getCache(EVENTS)).evict(eventId);
+        }
+        return total;
     }
 
-    private Users findUserById(Integer userId) {
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    private RuntimeException rejection(Integer userId, Integer eventId) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+        if (!event.isUpcoming()) {
+            return new EventPassedException("Event passed: cannot book");
+        }
+        if (bookingRepository.existsByUser_IdAndEvent_Id(userId, eventId)) {
+            return new AlreadyBookedException("Event is already booked");
+        }
+        return new SoldOutException("Event is sold out");
     }
 }
@@ -0,0 +1,343 @@
+package com.ragab.booking.api.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.ragab.booking.api.booking.dto.BookingRequestResponse;
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.BookingQueueFullException;
+import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.core.event.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ragab.booking.api.booking.dto.BookingRequestResponse.Status.BOOKED;
+import static com.ragab.booking.api.booking.dto.BookingRequestResponse.Status.PENDING;
+import static com.ragab.booking.api.booking.dto.BookingRequestResponse.Status.REJECTED;
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+
+/**
+ * Admission queue for events in high-demand mode.
+ * <p>
+ * Each event gets a bounded in-memory queue drained by at most one writer at a time, and
+ * dropped again once drained. The
+ * writer hands out seats against an in-memory counter and commits each batch with one insert
+ * and one guarded counter update. If that guard fails because seats were taken elsewhere,
+ * the batch is settled one request at a time through {@link BookingService}.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class FlashSaleEngine {
+    private final EventRepository eventRepository;
+    private final BookingService bookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+
+    @Value("${application.booking.flash-sale.queue-capacity}")
+    private int queueCapacity;
+    @Value("${application.booking.flash-sale.batch-size}")
+    private int batchSize;
+    @Value("${application.booking.flash-sale.writer-threads}")
+    private int writerThreads;
+    @Value("${application.booking.flash-sale.mode-cache-seconds}")
+    private long modeCacheSeconds;
+    @Value("${application.booking.flash-sale.mode-cache-max-size}")
+    private long modeCacheMaxSize;
+    @Value("${application.booking.flash-sale.ticket-ttl-minutes}")
+    private long ticketTtlMinutes;
+    @Value("${application.booking.flash-sale.ticket-cache-max-size}")
+    private long ticketCacheMaxSize;
+
+    private final Map<Integer, Lane> lanes = new ConcurrentHashMap<>();
+    private LoadingCache<Integer, Boolean> modes;
+    private Cache<String, Ticket> tickets;
+    private ExecutorService writers;
+
+    @PostConstruct
+    public void initialize() {
+        modes = Caffeine.newBuilder()
+                .maximumSize(modeCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(modeCacheSeconds))
+                .build(eventId -> eventRepository.findHighDemandById(eventId).orElse(false));
+        tickets = Caffeine.newBuilder()
+                .maximumSize(ticketCacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(ticketTtlMinutes))
+                .build();
+        AtomicInteger threadNumber = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "flash-sale-writer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writers.shutdown();
+        if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Flash-sale writers did not finish in time, pending booking requests are dropped");
+            writers.shutdownNow();
+        }
+    }
+
+    public boolean isHighDemand(Integer eventId) {
+        return modes.get(eventId);
+    }
+
+    /**
+     * Forgets the cached mode once the admin change is committed; other nodes
+     * pick it up when their cached mode expires.
+     */
+    public void modeChanged(Integer eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            modes.invalidate(eventId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                modes.invalidate(eventId);
+            }
+        });
+    }
+
+    public Ticket submit(Integer userId, Integer eventId) {
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId, eventId, new CompletableFuture<>());
+        AtomicBoolean queued = new AtomicBoolean();
+        // offered under the map's lock, so a lane is never retired with a ticket just put in it
+        Lane lane = lanes.compute(eventId, (id, current) -> {
+            Lane target = current == null ? new Lane(id) : current;
+            queued.set(target.queue.offer(ticket));
+            return target;
+        });
+        if (!queued.get()) {
+            throw new BookingQueueFullException("Too many booking requests for this event, please retry shortly");
+        }
+        tickets.put(ticket.id(), ticket);
+        lane.schedule();
+        return ticket;
+    }
+
+    public BookingRequestResponse status(String ticketId, Integer userId) {
+        Ticket ticket = tickets.getIfPresent(ticketId);
+        if (ticket == null || !ticket.userId().equals(userId)) {
+            throw new EntityNotFoundException("Booking request not found");
+        }
+        return ticket.toResponse();
+    }
+
+    public record Ticket(String id, Integer userId, Integer eventId, CompletableFuture<Integer> result) {
+        public BookingRequestResponse toResponse() {
+            if (!result.isDone()) {
+                return new BookingRequestResponse(id, PENDING, null, null);
+            }
+            try {
+                return new BookingRequestResponse(id, BOOKED, result.join(), null);
+            } catch (RuntimeException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                return new BookingRequestResponse(id, REJECTED, null, cause.getMessage());
+            }
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final Integer eventId;
+        private final BlockingQueue<Ticket> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // only touched by the single running writer
+        private int remaining;
+        private boolean upcoming;
+
+        private Lane(Integer eventId) {
+            this.eventId = eventId;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                // one seat read per burst; cancellations and other nodes are picked up on the next one
+                if (loadSeats()) {
+                    List<Ticket> batch = new ArrayList<>(batchSize);
+                    while (queue.drainTo(batch, batchSize) > 0) {
+                        commit(batch);
+                        batch.clear();
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.error("Flash-sale writer for event {} failed", eventId, ex);
+            } finally {
+                scheduled.set(false);
+                // a ticket offered after the last drain would otherwise wait for the next submit
+                if (!queue.isEmpty()) {
+                    schedule();
+                } else {
+                    retire();
+                }
+            }
+        }
+
+        /**
+         * Drops the lane once it ran dry, so events that calmed down or left high-demand mode
+         * do not keep a queue around; the next submit starts a fresh one.
+         */
+        private void retire() {
+            lanes.computeIfPresent(eventId, (id, current) -> current == this && queue.isEmpty() ? null : current);
+        }
+
+        private boolean loadSeats() {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT capacity, booked_count, held_count, date FROM events WHERE id = ?", eventId);
+            if (rows.isEmpty()) {
+                List<Ticket> orphaned = new ArrayList<>();
+                queue.drainTo(orphaned);
+                orphaned.forEach(ticket -> ticket.result().completeExceptionally(
+                        new EntityNotFoundException("Event not found")));
+                return false;
+            }
+            Map<String, Object> row = rows.get(0);
+            Integer capacity = (Integer) row.get("capacity");
+            int taken = (Integer) row.get("booked_count") + (Integer) row.get("held_count");
+            remaining = capacity == null ? Integer.MAX_VALUE : Math.max(capacity - taken, 0);
+            upcoming = ((Timestamp) row.get("date")).toLocalDateTime().isAfter(LocalDateTime.now());
+            return true;
+        }
+
+        private void commit(List<Ticket> batch) {
+            List<Ticket> accepted = new ArrayList<>();
+            Set<Integer> users = new HashSet<>();
+            for (Ticket ticket : batch) {
+                if (!upcoming) {
+                    ticket.result().completeExceptionally(new EventPassedException("Event passed: cannot book"));
+                } else if (!users.add(ticket.userId())) {
+                    ticket.result().completeExceptionally(new AlreadyBookedException("Event is already booked"));
+                } else if (accepted.size() >= remaining) {
+                    ticket.result().completeExceptionally(new SoldOutException("Event is sold out"));
+                } else {
+                    accepted.add(ticket);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, Integer> bookingIds;
+            try {
+                bookingIds = transactionTemplate.execute(status -> insertBatch(accepted));
+            } catch (SeatsTakenElsewhereException ex) {
+                settleOneByOne(accepted);
+                loadSeats();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Failed to commit flash-sale batch for event {}", eventId, ex);
+                accepted.forEach(ticket -> ticket.result().completeExceptionally(ex));
+                return;
+            }
+
+            remaining -= Objects.requireNonNull(bookingIds).size();
+            for (Ticket ticket : accepted) {
+                Integer bookingId = bookingIds.get(ticket.userId());
+                if (bookingId != null) {
+                    ticket.result().complete(bookingId);
+                } else {
+                    ticket.result().completeExceptionally(new AlreadyBookedException("Event is already booked"));
+                }
+            }
+        }
+
+        private Map<Integer, Integer> insertBatch(List<Ticket> accepted) {
+            LocalDateTime now = LocalDateTime.now();
+            Integer[] userIds = accepted.stream().map(Ticket::userId).toArray(Integer[]::new);
+            Map<Integer, Integer> bookingIds = new HashMap<>();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("""
+                        INSERT INTO bookings (user_id, event_id, created_by)
+                        SELECT u.id, ?, u.id
+                        FROM unnest(?) AS u(id)
+                        ON CONFLICT (user_id, event_id) DO NOTHING
+                        RETURNING id, user_id
+                        """);
+                statement.setInt(1, eventId);
+                statement.setArray(2, connection.createArrayOf("integer", userIds));
+                return statement;
+            }, resultSet -> {
+                bookingIds.put(resultSet.getInt("user_id"), resultSet.getInt("id"));
+            });
+            if (bookingIds.isEmpty()) {
+                return bookingIds;
+            }
+
+            int booked = bookingIds.size();
+            int updated = jdbcTemplate.update("""
+                    UPDATE events
+                    SET booked_count = booked_count + ?
+                    WHERE id = ?
+                      AND date > ?
+                      AND (capacity IS NULL OR booked_count + held_count + ? <= capacity)
+                    """, booked, eventId, now, booked);
+            if (updated == 0) {
+                throw new SeatsTakenElsewhereException();
+            }
+            Objects.requireNonNull(cacheManager.getCache(EVENTS)).evict(eventId);
+            return bookingIds;
+        }
+
+        private void settleOneByOne(List<Ticket> accepted) {
+            for (Ticket ticket : accepted) {
+                try {
+                    ticket.result().complete(bookingService.bookEvent(ticket.userId(), eventId));
+                } catch (RuntimeException ex) {
+                    ticket.result().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rolls a batch back when the event's seats no longer match the lane's counter.
+     */
+    private static final class SeatsTakenElsewhereException extends RuntimeException {
+    }
+}
@@ -0,0 +1,235 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.api.booking.dto.HoldResponse;
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.common.exception.custom.booking.HoldExpiredException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.common.scheduling.HashedTimingWheel;
+import com.ragab.booking.core.booking.model.BookingHold;
+import com.ragab.booking.core.booking.model.BookingInsert;
+import com.ragab.booking.core.booking.model.HoldConfirmation;
+import com.ragab.booking.core.booking.model.HoldDeadline;
+import com.ragab.booking.core.booking.repository.BookingHoldRepository;
+import com.ragab.booking.core.booking.repository.BookingRepository;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+
+/**
+ * Two-phase booking: a seat is held for a limited time and then confirmed into a booking.
+ * <p>
+ * Holds live in {@code booking_holds} and count against the event's capacity through
+ * {@code held_count}. Their deadlines are tracked by an in-memory timing wheel, so releasing
+ * abandoned holds costs nothing per tick beyond the holds that are actually due. The wheel is
+ * rebuilt from the table on startup, and a slow sweep catches anything it missed, e.g. holds
+ * placed on another node or deadlines lost to a failed release.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Service
+public class SeatHoldService {
+    private static final int RELEASE_CHUNK_SIZE = 1000;
+
+    private final BookingHoldRepository bookingHoldRepository;
+    private final BookingRepository bookingRepository;
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+
+    @Value("${application.booking.holds.duration-minutes}")
+    private long holdMinutes;
+    @Value("${application.booking.holds.tick-ms}")
+    private long tickMs;
+    @Value("${application.booking.holds.wheel-size}")
+    private int wheelSize;
+
+    private HashedTimingWheel<Integer> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        wheel = new HashedTimingWheel<>(Duration.ofMillis(tickMs), wheelSize, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Releases holds that expired while the application was down, fixes drifted held counts
+     * and loads the remaining deadlines into the wheel before it starts turning.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        transactionTemplate.executeWithoutResult(status ->
+                released(bookingHoldRepository.expireOverdueHolds(LocalDateTime.now())));
+        reconcileHeldCounts();
+        List<HoldDeadline> deadlines = bookingHoldRepository.findAllDeadlines();
+        deadlines.forEach(deadline -> wheel.schedule(deadline.id(), toMillis(deadline.expiresAt())));
+        log.info("Loaded {} seat hold(s) into the expiry wheel", deadlines.size());
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Corrects {@code held_count} on events that drifted from their holds. Other nodes keep
+     * placing and releasing holds meanwhile, so every event is recounted under its row lock.
+     */
+    public void reconcileHeldCounts() {
+        int drifted = 0;
+        for (Integer eventId : eventRepository.findHeldCountDrift()) {
+            drifted += Objects.requireNonNull(transactionTemplate.execute(status ->
+                    eventRepository.lockById(eventId).isPresent() ? eventRepository.recountHeldCount(eventId) : 0));
+        }
+        if (drifted > 0) {
+            log.warn("Corrected held count on {} event(s)", drifted);
+            Objects.requireNonNull(cacheManager.getCache(EVENTS)).clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    @Transactional
+    public HoldResponse placeHold(Integer userId, Integer eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(holdMinutes);
+        BookingInsert hold = bookingHoldRepository.placeHold(userId, eventId, now, expiresAt)
+                .orElseThrow(() -> holdRejection(userId, eventId));
+        if (!hold.getSeated()) {
+            // the last seat went while this hold waited for the event row
+            throw new SoldOutException("Event is sold out");
+        }
+        Integer holdId = hold.getId();
+        afterCommit(() -> wheel.schedule(holdId, toMillis(expiresAt)));
+        seatsChanged(eventId);
+        return new HoldResponse(holdId, eventId, expiresAt);
+    }
+
+    /**
+     * Books the held seat. The hold is consumed either way; if the user booked the event
+     * directly in the meantime, its seat is released and the rejection does not roll that back.
+     */
+    @Transactional(noRollbackFor = AlreadyBookedException.class)
+    public Integer confirmHold(Integer userId, Integer holdId) {
+        HoldConfirmation confirmed = bookingHoldRepository.confirmHold(userId, holdId, LocalDateTime.now())
+                .orElseThrow(() -> confirmRejection(userId, holdId));
+        afterCommit(() -> wheel.cancel(holdId));
+        seatsChanged(confirmed.getEventId());
+        if (confirmed.getBookingId() == null) {
+            throw new AlreadyBookedException("Event is already booked");
+        }
+        return confirmed.getBookingId();
+    }
+
+    @Transactional
+    public void releaseHold(Integer userId, Integer holdId) {
+        Integer eventId = bookingHoldRepository.releaseHold(userId, holdId)
+                .orElseThrow(() -> new EntityNotFoundException("Hold not found"));
+        afterCommit(() -> wheel.cancel(holdId));
+        seatsChanged(eventId);
+    }
+
+    /**
+     * Backstop for deadlines the wheel does not know about; served by the expiry index.
+     */
+    @Scheduled(cron = "${application.booking.holds.sweep-cron}")
+    @Transactional
+    public void sweepExpiredHolds() {
+        List<Integer> eventIds = bookingHoldRepository.expireOverdueHolds(LocalDateTime.now());
+        if (!eventIds.isEmpty()) {
+            log.info("Swept expired holds on {} event(s)", eventIds.size());
+            released(eventIds);
+        }
+    }
+
+    private void tick() {
+        try {
+            List<Integer> due = wheel.advance(System.currentTimeMillis());
+            for (int from = 0; from < due.size(); from += RELEASE_CHUNK_SIZE) {
+                List<Integer> chunk = due.subList(from, Math.min(from + RELEASE_CHUNK_SIZE, due.size()));
+                transactionTemplate.executeWithoutResult(status ->
+                        released(bookingHoldRepository.expireHolds(chunk, LocalDateTime.now())));
+            }
+        } catch (RuntimeException ex) {
+            // the sweep picks up whatever this tick failed to release
+            log.error("Failed to release expired seat holds", ex);
+        }
+    }
+
+    private void released(Collection<Integer> eventIds) {
+        eventIds.forEach(this::seatsChanged);
+    }
+
+    private void seatsChanged(Integer eventId) {
+        Objects.requireNonNull(cacheManager.getCache(EVENTS)).evict(eventId);
+    }
+
+    private RuntimeException holdRejection(Integer userId, Integer eventId) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+        if (!event.isUpcoming()) {
+            return new EventPassedException("Event passed: cannot hold seats");
+        }
+        if (bookingRepository.existsByUser_IdAndEvent_Id(userId, eventId)) {
+            return new AlreadyBookedException("Event is already booked");
+        }
+        if (bookingHoldRepository.existsByUserIdAndEventId(userId, eventId)) {
+            return new AlreadyBookedException("A seat is already held for this event");
+        }
+        return new SoldOutException("Event is sold out");
+    }
+
+    private RuntimeException confirmRejection(Integer userId, Integer holdId) {
+        BookingHold hold = bookingHoldRepository.findById(holdId)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new EntityNotFoundException("Hold not found"));
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return new HoldExpiredException("Hold expired at " + hold.getExpiresAt());
+        }
+        return new EventPassedException("Event passed: cannot book");
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.infrastructure.email.service.EmailService;
+import jakarta.mail.MessagingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Emails promoted waiters once their booking has committed. The listener runs on the async
+ * executor, so the cancellation that freed the seat does not wait for the mail server, and
+ * sends synchronously there, so a failed delivery is caught and logged with its booking.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class WaitlistNotifier {
+    private final EmailService emailService;
+
+    @Value("${application.mailing.frontend.url}")
+    private String frontendUrl;
+
+    @Async
+    @TransactionalEventListener
+    public void onPromoted(WaitlistService.Promoted promoted) {
+        try {
+            emailService.sendWaitlistPromotion(
+                    promoted.email(),
+                    promoted.username(),
+                    promoted.eventName(),
+                    frontendUrl + "/bookings"
+            );
+        } catch (MessagingException ex) {
+            log.error("Failed to notify booking {} of its waitlist promotion", promoted.bookingId(), ex);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.api.booking.dto.WaitlistResponse;
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.core.booking.model.WaitlistJoin;
+import com.ragab.booking.core.booking.repository.BookingRepository;
+import com.ragab.booking.core.booking.repository.WaitlistRepository;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.repository.EventRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.transaction.annotation.Propagation.MANDATORY;
+
+/**
+ * First-come, first-served waitlist for full events. A cancellation hands its seat to the
+ * head of the line within the same transaction; the waiter is told once it has committed.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Service
+public class WaitlistService {
+    private final WaitlistRepository waitlistRepository;
+    private final BookingRepository bookingRepository;
+    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public WaitlistResponse joinWaitlist(Integer userId, Integer eventId) {
+        WaitlistJoin entry = waitlistRepository.joinWaitlist(userId, eventId, LocalDateTime.now())
+                .orElseThrow(() -> rejection(userId, eventId));
+        return new WaitlistResponse(entry.getId(), eventId, entry.getAhead());
+    }
+
+    @Transactional
+    public void leaveWaitlist(Integer userId, Integer eventId) {
+        if (waitlistRepository.leaveWaitlist(userId, eventId) == 0) {
+            throw new EntityNotFoundException("You are not on the waitlist for this event");
+        }
+    }
+
+    /**
+     * Gives a seat that was just freed to the next waiter, if any. The caller must have
+     * locked the event row in the current transaction, e.g. by updating its counters.
+     */
+    @Transactional(propagation = MANDATORY)
+    public void promoteNext(Integer eventId) {
+        waitlistRepository.promoteNext(eventId, LocalDateTime.now()).ifPresent(promotion -> {
+            log.info("Promoted booking {} off the waitlist for event {}", promotion.getBookingId(), eventId);
+            eventPublisher.publishEvent(new Promoted(
+                    promotion.getBookingId(),
+                    promotion.getEmail(),
+                    promotion.getUsername(),
+                    promotion.getEventName()
+            ));
+        });
+    }
+
+    private RuntimeException rejection(Integer userId, Integer eventId) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+        if (!event.isUpcoming()) {
+            return new EventPassedException("Event passed: cannot join the waitlist");
+        }
+        if (bookingRepository.existsByUser_IdAndEvent_Id(userId, eventId)) {
+            return new AlreadyBookedException("Event is already booked");
+        }
+        if (waitlistRepository.existsByUserIdAndEventId(userId, eventId)) {
+            return new AlreadyBookedException("You are already on the waitlist for this event");
+        }
+        return new IllegalArgumentException("Event still has seats available, book it instead");
+    }
+
+    /**
+     * Published when a waiter was booked; delivered to listeners after the commit.
+     */
+    public record Promoted(Integer bookingId, String email, String username, String eventName) {
+    }
+}
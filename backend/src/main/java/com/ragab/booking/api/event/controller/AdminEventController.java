@@ -3,6 +3,8 @@ package com.ragab.booking.api.event.controller;
 import com.ragab.booking.api.event.dto.AddTagRequest;
 import com.ragab.booking.api.event.dto.EventRequest;
 import com.ragab.booking.api.event.service.AdminEventService;
+import com.ragab.booking.api.idempotency.service.IdempotencyService;
+import com.ragab.booking.config.security.userdetails.UserPrincipal;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -13,12 +15,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 
@@ -30,19 +35,32 @@ import static org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE;
 @SecurityRequirement(name = "Bearer Authentication")
 public class AdminEventController {
     private final AdminEventService adminEventService;
+    private final IdempotencyService idempotencyService;
 
-    @Operation(summary = "Create a new event", description = "Creates an event and returns its ID")
+    @Operation(
+            summary = "Create a new event",
+            description = "Creates an event and returns its ID. Retries sent with the same Idempotency-Key header return the event created first"
+    )
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Event created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid event data"),
-            @ApiResponse(responseCode = "403", description = "Unauthorized")
+            @ApiResponse(responseCode = "403", description = "Unauthorized"),
+            @ApiResponse(responseCode = "409", description = "An earlier request with the same idempotency key is still running"),
+            @ApiResponse(responseCode = "422", description = "Idempotency key was used for a different request")
     })
     @PostMapping
-    public ResponseEntity<Integer> createEvent(
-            @RequestBody @Valid EventRequest eventData
+    public CompletableFuture<ResponseEntity<Integer>> createEvent(
+            @RequestBody @Valid EventRequest eventData,
+            @RequestHeader(name = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserPrincipal userPrincipal
     ) {
-        Integer eventId = adminEventService.createEvent(eventData);
-        return ResponseEntity.created(URI.create("/api/v1/event/" + eventId)).body(eventId);
+        Supplier<CompletableFuture<Integer>> creation =
+                () -> CompletableFuture.completedFuture(adminEventService.createEvent(eventData));
+        CompletableFuture<Integer> eventId = idempotencyKey == null
+                ? creation.get()
+                : idempotencyService.execute(userPrincipal.user().getId(), idempotencyKey,
+                        idempotencyService.fingerprint("create-event", eventData), creation);
+        return eventId.thenApply(id -> ResponseEntity.created(URI.create("/api/v1/event/" + id)).body(id));
     }
 
     @Operation(summary = "Update an event", description = "Modifies event details")
@@ -112,6 +130,18 @@ public class AdminEventController {
     }
 
 
+    @Operation(summary = "Cancel all bookings of an event", description = "Cancels every booking of the event and returns how many were cancelled")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Bookings cancelled"),
+            @ApiResponse(responseCode = "404", description = "Event not found")
+    })
+    @DeleteMapping("/{eventId}/bookings")
+    public ResponseEntity<Map<String, Integer>> cancelEventBookings(
+            @PathVariable Integer eventId
+    ) {
+        return ResponseEntity.ok(Map.of("cancelled", adminEventService.cancelEventBookings(eventId)));
+    }
+
     @Operation(summary = "Delete an event", description = "Removes an event from the system")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Event deleted successfully"),
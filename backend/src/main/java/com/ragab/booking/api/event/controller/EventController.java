@@ -1,14 +1,32 @@
 package com.ragab.booking.api.event.controller;
 
+import com.ragab.booking.api.event.dto.EventFacetsResponse;
+import com.ragab.booking.api.event.dto.EventFilter;
 import com.ragab.booking.api.event.dto.EventResponse;
+import com.ragab.booking.api.event.dto.EventValidators;
+import com.ragab.booking.api.event.service.EventFacetIndex;
 import com.ragab.booking.api.event.service.EventService;
+import com.ragab.booking.common.response.CursorPageResponse;
 import com.ragab.booking.common.response.PageResponse;
+import com.ragab.booking.common.response.Versioned;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static com.ragab.booking.common.response.PageResponse.MAX_SIZE;
 
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Tag(name = "Events", description = "Endpoints for retrieving events")
@@ -16,22 +34,107 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/event")
 public class EventController {
     private final EventService eventService;
+    private final EventFacetIndex eventFacetIndex;
 
-    @Operation(summary = "Retrieve all events", description = "Returns a paginated list of events")
+    @Operation(
+            summary = "Retrieve all events",
+            description = "Returns a paginated list of events, optionally filtered by category, tags (any or all), date range, price range and upcoming only"
+    )
     @GetMapping
     public ResponseEntity<PageResponse<EventResponse>> getEvents(
-            @RequestParam(name = "page", defaultValue = "0", required = false) int page,
-            @RequestParam(name = "size", defaultValue = "10", required = false) int size
+            @ParameterObject EventFilter filter,
+            @RequestParam(name = "page", defaultValue = "0", required = false)
+            @PositiveOrZero(message = "Page must not be negative")
+            int page,
+            @RequestParam(name = "size", defaultValue = "10", required = false)
+            @Min(value = 1, message = "Size must be at least 1")
+            @Max(value = MAX_SIZE, message = "Size must not exceed " + MAX_SIZE)
+            int size,
+            WebRequest request
+    ) {
+        Versioned<PageResponse<EventResponse>> events = eventService.getEvents(filter, page, size);
+        if (request.checkNotModified(events.eTag())) {
+            return null;
+        }
+        return versioned(events);
+    }
+
+    @Operation(
+            summary = "Scroll through events",
+            description = "Returns events newest first using an opaque cursor instead of page numbers; pass the returned nextCursor to get the following page"
+    )
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<EventResponse>> scrollEvents(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false)
+            @Min(value = 1, message = "Size must be at least 1")
+            @Max(value = MAX_SIZE, message = "Size must not exceed " + MAX_SIZE)
+            int size,
+            WebRequest request
+    ) {
+        Versioned<CursorPageResponse<EventResponse>> events = eventService.scrollEvents(cursor, size);
+        if (request.checkNotModified(events.eTag())) {
+            return null;
+        }
+        return versioned(events);
+    }
+
+    @Operation(
+            summary = "Search events",
+            description = "Full-text search over event name, description, venue, category and tags, ordered by relevance; pass the returned nextCursor to get the following page"
+    )
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<EventResponse>> searchEvents(
+            @RequestParam(name = "q")
+            @NotBlank(message = "Search text is required")
+            @Size(max = 200, message = "Search text must not exceed 200 characters")
+            String text,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10", required = false)
+            @Min(value = 1, message = "Size must be at least 1")
+            @Max(value = MAX_SIZE, message = "Size must not exceed " + MAX_SIZE)
+            int size
     ) {
-        return ResponseEntity.ok(eventService.getEvents(page, size));
+        return ResponseEntity.ok(eventService.searchEvents(text, cursor, size));
+    }
+
+    @Operation(
+            summary = "Count upcoming events per category and tag",
+            description = "Returns facet counts for upcoming events matching the same filters as the event listing; each facet ignores its own filter"
+    )
+    @GetMapping("/facets")
+    public ResponseEntity<EventFacetsResponse> getFacets(@ParameterObject EventFilter filter) {
+        return ResponseEntity.ok(eventFacetIndex.facets(filter));
     }
 
     @Operation(summary = "Retrieve an event by ID", description = "Fetches details of a specific event")
     @GetMapping("/{eventId}")
     public ResponseEntity<EventResponse> getEvent(
-            @PathVariable Integer eventId
+            @PathVariable Integer eventId,
+            WebRequest request
     ) {
+        Optional<EventValidators> validators = eventService.getEventValidators(eventId);
+        if (validators.isPresent() && request.checkNotModified(validators.get().eTag())) {
+            return null;
+        }
         EventResponse event = eventService.getEvent(eventId);
-        return ResponseEntity.ok(event);
+        if (validators.isEmpty()) {
+            // created between the two reads
+            return ResponseEntity.ok(event);
+        }
+        EventValidators served = validators.get().servedWith(event);
+        return ResponseEntity.ok()
+                .eTag(served.eTag())
+                .lastModified(served.lastModifiedMillis())
+                .body(event);
+    }
+
+    // validated by ETag only: seat counters change without moving Last-Modified
+    private static <T> ResponseEntity<T> versioned(Versioned<T> versioned) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(versioned.eTag());
+        if (versioned.lastModified() != null) {
+            response.lastModified(versioned.lastModified().atZone(ZoneId.systemDefault()));
+        }
+        return response.body(versioned.body());
     }
 }
@@ -0,0 +1,9 @@
+package com.ragab.booking.api.event.dto;
+
+import java.util.Map;
+
+public record EventFacetsResponse(
+        Map<String, Integer> categories,
+        Map<String, Integer> tags
+) {
+}
@@ -0,0 +1,32 @@
+package com.ragab.booking.api.event.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME;
+
+public record EventFilter(
+        String category,
+        Set<String> tags,
+        TagMatch tagMatch,
+        @DateTimeFormat(iso = DATE_TIME)
+        LocalDateTime from,
+        @DateTimeFormat(iso = DATE_TIME)
+        LocalDateTime to,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        boolean upcoming
+) {
+    public static final EventFilter NONE = new EventFilter(null, null, null, null, null, null, null, false);
+
+    public enum TagMatch {
+        ANY, ALL
+    }
+
+    public boolean hasTags() {
+        return tags != null && !tags.isEmpty();
+    }
+}
@@ -3,6 +3,7 @@ package com.ragab.booking.api.event.dto;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 
 import java.math.BigDecimal;
@@ -19,6 +20,9 @@ public record EventRequest(
         BigDecimal price,
         @NotBlank(message = "Venue is required")
         String venue,
-        String category
+        String category,
+        @Positive(message = "Capacity must be greater than zero")
+        Integer capacity,
+        boolean highDemand
 ) {
 }
@@ -11,6 +11,10 @@ public record EventResponse(
         LocalDateTime eventDate,
         BigDecimal price,
         String venue,
+        int bookedCount,
+        Integer capacity,
+        Integer remaining,
+        boolean highDemand,
         String category,
         Set<String> tags,
         String imageUrl,
@@ -0,0 +1,38 @@
+package com.ragab.booking.api.event.dto;
+
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * What a conditional GET on one event is validated against. Admin edits move
+ * {@code lastModified}; the ETag also covers what changes without touching the row's
+ * last-modified date: the seat counters, the upcoming flag and the signed image URL.
+ */
+public record EventValidators(
+        LocalDateTime lastModified,
+        int bookedCount,
+        Integer remaining,
+        boolean upcoming,
+        String imageUrl
+) {
+    /**
+     * The validators of the body actually served, which may come from the event cache.
+     */
+    public EventValidators servedWith(EventResponse event) {
+        return new EventValidators(lastModified, event.bookedCount(), event.remaining(), event.isUpcoming(), event.imageUrl());
+    }
+
+    public String eTag() {
+        String version = lastModified + "|" + bookedCount + "|" + remaining + "|" + upcoming + "|" + Objects.toString(imageUrl, "");
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(UTF_8)) + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,7 +1,8 @@
 package com.ragab.booking.api.event.service;
 
+import com.ragab.booking.api.booking.service.BookingService;
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
 import com.ragab.booking.api.event.dto.EventRequest;
-import com.ragab.booking.core.booking.repository.BookingRepository;
 import com.ragab.booking.core.category.model.Category;
 import com.ragab.booking.core.category.repository.CategoryRepository;
 import com.ragab.booking.core.event.mapper.EventMapper;
@@ -13,10 +14,15 @@ import com.ragab.booking.infrastructure.azure.EventImageService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+import static com.ragab.booking.config.CacheConfig.EVENT_PAGES;
+
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Service
 public class AdminEventService {
@@ -25,27 +31,45 @@ public class AdminEventService {
     private final EventMapper eventMapper;
     private final TagRepository tagRepository;
     private final EventImageService eventImageService;
-    private final BookingRepository bookingRepository;
+    private final EventFacetIndex eventFacetIndex;
+    private final FlashSaleEngine flashSaleEngine;
+    private final BookingService bookingService;
 
 
+    @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
     @Transactional
     public Integer createEvent(EventRequest eventData) {
         Event event = eventMapper.toEntity(eventData);
         Category category = getCategoryByName(eventData.category());
         event.setCategory(category);
-        return eventRepository.saveAndFlush(event).getId();
+        Event saved = eventRepository.saveAndFlush(event);
+        eventFacetIndex.index(saved);
+        return saved.getId();
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = EVENTS, key = "#eventId"),
+            @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
+    })
     @Transactional
     public void updateEvent(Integer eventId, EventRequest eventData) {
+        // held until commit, so no booking or hold takes a seat between the capacity check and the update
+        eventRepository.lockById(eventId)
+                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
         Event event = getEventById(eventId);
         Category category = getCategoryByName(eventData.category());
         event.setCategory(category);
         updateEvent(event, eventData);
 
         eventRepository.save(event);
+        eventFacetIndex.index(event);
+        flashSaleEngine.modeChanged(eventId);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = EVENTS, key = "#eventId"),
+            @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
+    })
     @Transactional
     public void addTagToEvent(Integer eventId, String tagName) {
         Event event = getEventById(eventId);
@@ -59,6 +83,7 @@ public class AdminEventService {
         event.getTags().add(tag);
 
         eventRepository.save(event);
+        eventFacetIndex.index(event);
     }
 
     public void updatePhoto(Integer eventId, MultipartFile file) {
@@ -70,9 +95,13 @@ public class AdminEventService {
     }
 
     public int getBookingCount(Integer eventId) {
-        return bookingRepository.countByEvent_Id(eventId);
+        return getEventById(eventId).getBookedCount();
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = EVENTS, key = "#eventId"),
+            @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
+    })
     @Transactional
     public void deleteEvent(Integer eventId) {
         Event event = getEventById(eventId);
@@ -80,8 +109,21 @@ public class AdminEventService {
         eventImageService.deleteEventImage(eventId);
 
         eventRepository.delete(event);
+        eventFacetIndex.remove(eventId);
     }
 
+    /**
+     * Cancels all bookings of the event in chunks, e.g. when it is called off.
+     *
+     * @return the number of bookings cancelled
+     */
+    @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
+    public int cancelEventBookings(Integer eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new EntityNotFoundException("Event not found");
+        }
+        return bookingService.cancelAllBookings(eventId);
+    }
 
     private Event getEventById(Integer eventId) {
         return eventRepository.findById(eventId)
@@ -99,5 +141,10 @@ public class AdminEventService {
         event.setEventDate(eventData.eventDate());
         event.setPrice(eventData.price());
         event.setVenue(eventData.venue());
+        if (eventData.capacity() != null && eventData.capacity() < event.getBookedCount() + event.getHeldCount()) {
+            throw new IllegalArgumentException("Capacity cannot be lower than the number of booked and held seats");
+        }
+        event.setCapacity(eventData.capacity());
+        event.setHighDemand(eventData.highDemand());
     }
 }
@@ -0,0 +1,213 @@
+package com.ragab.booking.api.event.service;
+
+import com.ragab.booking.api.event.dto.EventFacetsResponse;
+import com.ragab.booking.api.event.dto.EventFilter;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.model.EventFacetRow;
+import com.ragab.booking.core.event.model.EventTag;
+import com.ragab.booking.core.event.repository.EventRepository;
+import com.ragab.booking.core.tag.model.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.ragab.booking.api.event.dto.EventFilter.TagMatch.ALL;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Node-local index of upcoming events, answering category and tag facet counts from memory.
+ * <p>
+ * Admin writes on this node are applied once their transaction commits, and the unfiltered
+ * counts are adjusted by the difference. The scheduled reconciliation rebuilds everything from
+ * the database, which drops events that have since started and picks up writes made elsewhere.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class EventFacetIndex {
+    private final EventRepository eventRepository;
+
+    private volatile Map<Integer, FacetEntry> entries = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> categoryCounts = new ConcurrentHashMap<>();
+    private volatile Map<String, Integer> tagCounts = new ConcurrentHashMap<>();
+    private long writes;
+
+    /**
+     * Counts matching upcoming events per category and per tag. Each dimension ignores its own
+     * filter, so selecting a category still shows how many events the other categories have.
+     */
+    public EventFacetsResponse facets(EventFilter filter) {
+        if (isUnfiltered(filter)) {
+            return new EventFacetsResponse(sortedByCount(categoryCounts), sortedByCount(tagCounts));
+        }
+
+        Map<String, Integer> categories = new HashMap<>();
+        Map<String, Integer> tags = new HashMap<>();
+        for (FacetEntry entry : entries.values()) {
+            if (!entry.inRange(filter)) {
+                continue;
+            }
+            if (entry.category() != null && entry.hasTags(filter)) {
+                categories.merge(entry.category(), 1, Integer::sum);
+            }
+            if (entry.inCategory(filter)) {
+                entry.tags().forEach(tag -> tags.merge(tag, 1, Integer::sum));
+            }
+        }
+        return new EventFacetsResponse(sortedByCount(categories), sortedByCount(tags));
+    }
+
+    /**
+     * Indexes the event as it is now, once the surrounding transaction commits.
+     * Events that are no longer upcoming are removed instead.
+     */
+    public void index(Event event) {
+        Integer eventId = event.getId();
+        FacetEntry entry = event.isUpcoming() ? FacetEntry.of(event) : null;
+        afterCommit(() -> apply(eventId, entry));
+    }
+
+    public void remove(Integer eventId) {
+        afterCommit(() -> apply(eventId, null));
+    }
+
+    @Scheduled(fixedDelayString = "${application.facets.reconcile-interval-ms}")
+    public void reconcile() {
+        long writesBefore;
+        synchronized (this) {
+            writesBefore = writes;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, Set<String>> tagsByEvent = eventRepository.findUpcomingEventTags(now).stream()
+                .collect(groupingBy(EventTag::eventId, mapping(EventTag::tagName, toSet())));
+        Map<Integer, FacetEntry> freshEntries = eventRepository.findUpcomingFacetRows(now).stream()
+                .collect(Collectors.toMap(EventFacetRow::eventId, row -> new FacetEntry(
+                        row.category(),
+                        tagsByEvent.getOrDefault(row.eventId(), Set.of()),
+                        row.eventDate(),
+                        row.price()
+                ), (a, b) -> a, ConcurrentHashMap::new));
+        Map<String, Integer> freshCategoryCounts = new ConcurrentHashMap<>();
+        Map<String, Integer> freshTagCounts = new ConcurrentHashMap<>();
+        freshEntries.values().forEach(entry -> count(entry, 1, freshCategoryCounts, freshTagCounts));
+
+        synchronized (this) {
+            if (writes != writesBefore) {
+                // a local write landed while reading; its state may be missing from this snapshot
+                log.info("Skipping facet reconciliation, the index changed while it was being rebuilt");
+                return;
+            }
+            entries = freshEntries;
+            categoryCounts = freshCategoryCounts;
+            tagCounts = freshTagCounts;
+        }
+    }
+
+    private synchronized void apply(Integer eventId, FacetEntry entry) {
+        FacetEntry previous = entry == null ? entries.remove(eventId) : entries.put(eventId, entry);
+        if (previous != null) {
+            count(previous, -1, categoryCounts, tagCounts);
+        }
+        if (entry != null) {
+            count(entry, 1, categoryCounts, tagCounts);
+        }
+        writes++;
+    }
+
+    private static void count(FacetEntry entry, int delta,
+                              Map<String, Integer> categoryCounts, Map<String, Integer> tagCounts) {
+        if (entry.category() != null) {
+            categoryCounts.compute(entry.category(), (name, count) -> adjust(count, delta));
+        }
+        entry.tags().forEach(tag -> tagCounts.compute(tag, (name, count) -> adjust(count, delta)));
+    }
+
+    private static Integer adjust(Integer count, int delta) {
+        int adjusted = (count == null ? 0 : count) + delta;
+        return adjusted > 0 ? adjusted : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static boolean isUnfiltered(EventFilter filter) {
+        return (filter.category() == null || filter.category().isBlank())
+                && !filter.hasTags()
+                && filter.from() == null
+                && filter.to() == null
+                && filter.minPrice() == null
+                && filter.maxPrice() == null;
+    }
+
+    private static Map<String, Integer> sortedByCount(Map<String, Integer> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private record FacetEntry(
+            String category,
+            Set<String> tags,
+            LocalDateTime eventDate,
+            BigDecimal price
+    ) {
+        static FacetEntry of(Event event) {
+            return new FacetEntry(
+                    event.getCategory() == null ? null : event.getCategory().getName(),
+                    event.getTags().stream().map(Tag::getName).collect(Collectors.toUnmodifiableSet()),
+                    event.getEventDate(),
+                    event.getPrice()
+            );
+        }
+
+        boolean inRange(EventFilter filter) {
+            return (filter.from() == null || !eventDate.isBefore(filter.from()))
+                    && (filter.to() == null || eventDate.isBefore(filter.to()))
+                    && (filter.minPrice() == null || price.compareTo(filter.minPrice()) >= 0)
+                    && (filter.maxPrice() == null || price.compareTo(filter.maxPrice()) <= 0);
+        }
+
+        boolean inCategory(EventFilter filter) {
+            return filter.category() == null || filter.category().isBlank()
+                    || filter.category().equalsIgnoreCase(category);
+        }
+
+        boolean hasTags(EventFilter filter) {
+            if (!filter.hasTags()) {
+                return true;
+            }
+            Set<String> own = tags.stream().map(String::toLowerCase).collect(toSet());
+            return filter.tagMatch() == ALL
+                    ? filter.tags().stream().map(String::toLowerCase).allMatch(own::contains)
+                    : filter.tags().stream().map(String::toLowerCase).anyMatch(own::contains);
+        }
+    }
+}
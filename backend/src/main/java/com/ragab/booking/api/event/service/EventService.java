@@ -1,22 +1,50 @@
 package com.ragab.booking.api.event.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ragab.booking.api.event.dto.EventFilter;
 import com.ragab.booking.api.event.dto.EventResponse;
+import com.ragab.booking.api.event.dto.EventValidators;
+import com.ragab.booking.common.response.Cursor;
+import com.ragab.booking.common.response.CursorPageResponse;
 import com.ragab.booking.common.response.PageResponse;
+import com.ragab.booking.common.response.RankCursor;
+import com.ragab.booking.common.response.Versioned;
 import com.ragab.booking.core.event.mapper.EventMapper;
 import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.model.EventSearchHit;
+import com.ragab.booking.core.event.model.EventTag;
 import com.ragab.booking.core.event.repository.EventRepository;
 import com.ragab.booking.infrastructure.azure.EventImageService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.ragab.booking.api.event.dto.EventFilter.TagMatch.ALL;
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+import static com.ragab.booking.config.CacheConfig.EVENT_PAGES;
+import static com.ragab.booking.core.event.specification.EventSpecification.*;
 
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Service
@@ -24,21 +52,17 @@ public class EventService {
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final EventImageService eventImageService;
+    private final ObjectMapper objectMapper;
 
 
+    @Cacheable(cacheNames = EVENT_PAGES, key = "{#filter, #page, #size, 'eventDate: DESC'}")
     @Transactional(readOnly = true)
-    public PageResponse<EventResponse> getEvents(int page, int size) {
+    public Versioned<PageResponse<EventResponse>> getEvents(EventFilter filter, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by("eventDate").descending());
-        Page<Event> events = eventRepository.findAll(pageable);
+        Page<Event> events = eventRepository.findAll(toSpecification(filter), pageable);
 
-        List<EventResponse> eventResponse = events.stream()
-                .map(event ->
-                        eventMapper.toResponse(
-                                event,
-                                eventImageService.getImageUrl(event.getImageUrl())
-                        )
-                ).toList();
-        return new PageResponse<>(
+        List<EventResponse> eventResponse = toResponses(events.getContent());
+        return versioned(new PageResponse<>(
                 eventResponse,
                 events.getNumber(),
                 events.getSize(),
@@ -46,9 +70,72 @@ public class EventService {
                 events.getTotalPages(),
                 events.isFirst(),
                 events.isLast()
-        );
+        ), events.getContent());
+    }
+
+    @Cacheable(cacheNames = EVENT_PAGES, key = "{#cursor, #size, 'eventDate: DESC, id: DESC'}")
+    @Transactional(readOnly = true)
+    public Versioned<CursorPageResponse<EventResponse>> scrollEvents(String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<Event> events;
+        if (cursor == null || cursor.isBlank()) {
+            events = eventRepository.findKeysetPage(limit);
+        } else {
+            Cursor position = Cursor.decode(cursor);
+            events = eventRepository.findKeysetPageAfter(position.timestamp(), position.id(), limit);
+        }
+
+        boolean last = events.size() <= size;
+        List<Event> page = last ? events : events.subList(0, size);
+        String nextCursor = null;
+        if (!last) {
+            Event lastEvent = page.get(page.size() - 1);
+            nextCursor = new Cursor(lastEvent.getEventDate(), lastEvent.getId()).encode();
+        }
+
+        return versioned(CursorPageResponse.<EventResponse>builder()
+                .content(toResponses(page))
+                .size(size)
+                .nextCursor(nextCursor)
+                .last(last)
+                .build(), page);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<EventResponse> searchEvents(String text, String cursor, int size) {
+        List<EventSearchHit> hits;
+        if (cursor == null || cursor.isBlank()) {
+            hits = eventRepository.search(text, size + 1);
+        } else {
+            RankCursor position = RankCursor.decode(cursor);
+            hits = eventRepository.searchAfter(text, position.rank(), position.id(), size + 1);
+        }
+
+        boolean last = hits.size() <= size;
+        List<EventSearchHit> page = last ? hits : hits.subList(0, size);
+        String nextCursor = null;
+        if (!last) {
+            EventSearchHit lastHit = page.get(page.size() - 1);
+            nextCursor = new RankCursor(lastHit.getRank(), lastHit.getId()).encode();
+        }
+
+        Map<Integer, Event> events = eventRepository.findAllByIdIn(page.stream().map(EventSearchHit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Event::getId, Function.identity()));
+        List<Event> ranked = page.stream()
+                .map(hit -> events.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .toList();
+
+        return CursorPageResponse.<EventResponse>builder()
+                .content(toResponses(ranked))
+                .size(size)
+                .nextCursor(nextCursor)
+                .last(last)
+                .build();
     }
 
+    @Cacheable(cacheNames = EVENTS, key = "#eventId")
     @Transactional(readOnly = true)
     public EventResponse getEvent(Integer eventId) {
         Event event = eventRepository.findById(eventId)
@@ -57,4 +144,94 @@ public class EventService {
         return eventMapper.toResponse(event, eventImageService.getImageUrl(event.getImageUrl()));
     }
 
+    /**
+     * Reads what a conditional GET on the event is validated against with one primary-key
+     * lookup, so a matching request is answered before the event is loaded and mapped.
+     */
+    @Transactional(readOnly = true)
+    public Optional<EventValidators> getEventValidators(Integer eventId) {
+        return eventRepository.findVersionById(eventId, LocalDateTime.now())
+                .map(version -> new EventValidators(
+                        version.getLastModified(),
+                        version.getBookedCount(),
+                        version.getRemaining(),
+                        version.getUpcoming(),
+                        eventImageService.getImageUrl(version.getImageUrl())
+                ));
+    }
+
+    /**
+     * Hashes the page once while it is built, so cached pages answer conditional requests
+     * without being serialised again.
+     */
+    private <T> Versioned<T> versioned(T body, List<Event> events) {
+        LocalDateTime lastModified = events.stream()
+                .map(event -> event.getLastModifiedDate() != null ? event.getLastModifiedDate() : event.getCreatedDate())
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        try {
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(body)) + "\"";
+            return new Versioned<>(body, eTag, lastModified);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to hash the event page", ex);
+        }
+    }
+
+    private Specification<Event> toSpecification(EventFilter filter) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (filter.minPrice() != null && filter.maxPrice() != null && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new IllegalArgumentException("'minPrice' must not be greater than 'maxPrice'");
+        }
+
+        List<Specification<Event>> specifications = new ArrayList<>();
+        if (filter.category() != null && !filter.category().isBlank()) {
+            specifications.add(inCategory(filter.category()));
+        }
+        if (filter.hasTags()) {
+            specifications.add(filter.tagMatch() == ALL ? hasAllTags(filter.tags()) : hasAnyTag(filter.tags()));
+        }
+        if (filter.from() != null) {
+            specifications.add(startsFrom(filter.from()));
+        }
+        if (filter.to() != null) {
+            specifications.add(startsBefore(filter.to()));
+        }
+        if (filter.minPrice() != null) {
+            specifications.add(priceAtLeast(filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            specifications.add(priceAtMost(filter.maxPrice()));
+        }
+        if (filter.upcoming()) {
+            specifications.add(inFuture());
+        }
+        return Specification.allOf(specifications);
+    }
+
+    private List<EventResponse> toResponses(List<Event> events) {
+        Map<Integer, Set<String>> tags = findTagsByEvent(events);
+        return events.stream()
+                .map(event ->
+                        eventMapper.toResponse(
+                                event,
+                                tags.getOrDefault(event.getId(), Set.of()),
+                                eventImageService.getImageUrl(event.getImageUrl())
+                        )
+                ).toList();
+    }
+
+    private Map<Integer, Set<String>> findTagsByEvent(List<Event> events) {
+        if (events.isEmpty()) {
+            return Map.of();
+        }
+        List<Integer> eventIds = events.stream().map(Event::getId).toList();
+        return eventRepository.findTagsByEventIds(eventIds).stream()
+                .collect(Collectors.groupingBy(
+                        EventTag::eventId,
+                        Collectors.mapping(EventTag::tagName, Collectors.toSet())
+                ));
+    }
+
 }
@@ -0,0 +1,279 @@
+package com.ragab.booking.api.idempotency.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragab.booking.common.exception.custom.IdempotencyInProgressException;
+import com.ragab.booking.common.exception.custom.IdempotencyKeyReusedException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Makes retried mutations safe. A request carrying an {@code Idempotency-Key} header runs once
+ * per user and key; a retry gets the id that the first run produced.
+ * <p>
+ * Completed results are answered from a bounded in-memory cache, backed by the
+ * {@code idempotency_keys} table so that any node can replay them. Before running, a node
+ * claims the key in that table. Duplicates on the same node share the running request's
+ * future; duplicates on other nodes poll the claim until it carries a result. The claim is
+ * renewed while the run lasts, so only a claim whose node died is taken over. A failed run
+ * releases its claim, so the client can retry it.
+ */
+@Slf4j
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.idempotency.cache-max-size}")
+    private long cacheMaxSize;
+    @Value("${application.idempotency.cache-ttl-minutes}")
+    private long cacheTtlMinutes;
+    @Value("${application.idempotency.retention-hours}")
+    private long retentionHours;
+    @Value("${application.idempotency.claim-timeout-seconds}")
+    private long claimTimeoutSeconds;
+    @Value("${application.idempotency.wait-ms}")
+    private long waitMs;
+    @Value("${application.idempotency.poll-ms}")
+    private long pollMs;
+
+    private final Map<Key, InFlight> inFlight = new ConcurrentHashMap<>();
+    private Cache<Key, Outcome> completed;
+    private ScheduledExecutorService poller;
+
+    @PostConstruct
+    public void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Runs {@code action} unless this user already sent {@code idempotencyKey}, in which case
+     * the first run's result is returned once it is known.
+     *
+     * @param fingerprint identifies the request the key was first used for; reusing the key
+     *                    for a different request is rejected
+     * @param action      performs the request and yields the id of what it created
+     */
+    public CompletableFuture<Integer> execute(
+            Integer userId,
+            String idempotencyKey,
+            String fingerprint,
+            Supplier<CompletableFuture<Integer>> action
+    ) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Key key = new Key(userId, idempotencyKey);
+        Outcome outcome = completed.getIfPresent(key);
+        if (outcome != null) {
+            outcome.check(fingerprint);
+            return CompletableFuture.completedFuture(outcome.resultId());
+        }
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (!running.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency key was already used for a different request");
+            }
+            return running.result().copy();
+        }
+
+        try {
+            attempt(key, mine, action, System.currentTimeMillis() + waitMs);
+        } catch (RuntimeException ex) {
+            finish(key, mine, null, ex);
+        }
+        return mine.result().copy();
+    }
+
+    /**
+     * Fingerprints a request by the SHA-256 of its JSON form, so that reusing a key for a
+     * request with a different body is caught.
+     */
+    public String fingerprint(String operation, Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return operation + ":" + HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to fingerprint the request", ex);
+        }
+    }
+
+    @Scheduled(cron = "${application.idempotency.purge-cron}")
+    public void purgeExpiredKeys() {
+        int purged = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE claimed_at < ?",
+                LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency key(s)", purged);
+        }
+    }
+
+    private void attempt(Key key, InFlight mine, Supplier<CompletableFuture<Integer>> action, long deadline) {
+        Outcome stored = claim(key, mine.fingerprint());
+        if (stored == null) {
+            run(key, mine, action);
+            return;
+        }
+        stored.check(mine.fingerprint());
+        if (stored.resultId() != null) {
+            completed.put(key, stored);
+            finish(key, mine, stored.resultId(), null);
+            return;
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            throw new IdempotencyInProgressException("The first request with this idempotency key has not finished yet");
+        }
+        // a taken-over claim runs the action on the poller, which needs the caller's principal
+        poller.schedule(new DelegatingSecurityContextRunnable(() -> {
+            try {
+                attempt(key, mine, action, deadline);
+            } catch (RuntimeException ex) {
+                finish(key, mine, null, ex);
+            }
+        }), pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run(Key key, InFlight mine, Supplier<CompletableFuture<Integer>> action) {
+        // keep the claim fresh while running, so a slow run is not taken over by another node
+        long renewSeconds = Math.max(1, claimTimeoutSeconds / 3);
+        ScheduledFuture<?> renewal = poller.scheduleAtFixedRate(() -> renew(key),
+                renewSeconds, renewSeconds, TimeUnit.SECONDS);
+        CompletableFuture<Integer> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException ex) {
+            result = CompletableFuture.failedFuture(ex);
+        }
+        result.whenComplete((resultId, ex) -> {
+            renewal.cancel(false);
+            try {
+                if (ex == null) {
+                    jdbcTemplate.update(
+                            "UPDATE idempotency_keys SET result_id = ? WHERE user_id = ? AND idempotency_key = ?",
+                            resultId, key.userId(), key.idempotencyKey());
+                    completed.put(key, new Outcome(mine.fingerprint(), resultId));
+                } else {
+                    jdbcTemplate.update(
+                            "DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND result_id IS NULL",
+                            key.userId(), key.idempotencyKey());
+                }
+            } catch (RuntimeException storeEx) {
+                // the claim expires after the claim timeout and can then be taken over
+                log.error("Failed to record the outcome of idempotency key {}", key.idempotencyKey(), storeEx);
+            }
+            finish(key, mine, resultId, ex);
+        });
+    }
+
+    private void renew(Key key) {
+        try {
+            jdbcTemplate.update("""
+                            UPDATE idempotency_keys SET claimed_at = CURRENT_TIMESTAMP
+                            WHERE user_id = ? AND idempotency_key = ? AND result_id IS NULL
+                            """,
+                    key.userId(), key.idempotencyKey());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to renew the claim on idempotency key {}", key.idempotencyKey(), ex);
+        }
+    }
+
+    /**
+     * Claims the key for this node, taking over claims whose node apparently died.
+     *
+     * @return {@code null} if the key is now ours; otherwise what is stored for it
+     */
+    private Outcome claim(Key key, String fingerprint) {
+        List<Integer> claimed = jdbcTemplate.queryForList("""
+                        INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint)
+                        VALUES (?, ?, ?)
+                        ON CONFLICT (user_id, idempotency_key) DO UPDATE
+                            SET fingerprint = EXCLUDED.fingerprint,
+                                claimed_at  = CURRENT_TIMESTAMP
+                        WHERE idempotency_keys.result_id IS NULL
+                          AND idempotency_keys.claimed_at < ?
+                        RETURNING 1
+                        """, Integer.class,
+                key.userId(), key.idempotencyKey(), fingerprint,
+                LocalDateTime.now().minusSeconds(claimTimeoutSeconds));
+        if (!claimed.isEmpty()) {
+            return null;
+        }
+        List<Outcome> stored = jdbcTemplate.query("""
+                        SELECT fingerprint, CAST(result_id AS INTEGER) AS result_id
+                        FROM idempotency_keys
+                        WHERE user_id = ? AND idempotency_key = ?
+                        """,
+                (rs, rowNum) -> new Outcome(rs.getString("fingerprint"), rs.getObject("result_id", Integer.class)),
+                key.userId(), key.idempotencyKey());
+        // released in between: look again on the next poll
+        return stored.isEmpty() ? new Outcome(fingerprint, null) : stored.get(0);
+    }
+
+    private void finish(Key key, InFlight mine, Integer resultId, Throwable ex) {
+        inFlight.remove(key, mine);
+        if (ex == null) {
+            mine.result().complete(resultId);
+        } else {
+            mine.result().completeExceptionally(
+                    ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+
+    private record Key(Integer userId, String idempotencyKey) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<Integer> result) {
+    }
+
+    private record Outcome(String fingerprint, Integer resultId) {
+        void check(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency key was already used for a different request");
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.ragab.booking.api.ratelimit.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragab.booking.common.exception.handler.ExceptionResponse;
+import com.ragab.booking.common.ratelimit.TokenBucket;
+import com.ragab.booking.config.security.userdetails.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.ragab.booking.common.exception.handler.BusinessErrorCode.RATE_LIMITED;
+
+/**
+ * Throttles the expensive write routes per client: sign-in and the other auth forms per IP,
+ * booking changes per user. Each client gets a token bucket per route; buckets of idle
+ * clients expire and the number of tracked clients is bounded.
+ * <p>
+ * It runs after the JWT filter so that signed-in users are limited by id rather than by
+ * an address they may share with others.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final ObjectMapper objectMapper;
+
+    @Value("${application.rate-limit.max-clients}")
+    private long maxClients;
+    @Value("${application.rate-limit.idle-minutes}")
+    private long idleMinutes;
+    @Value("${application.rate-limit.auth.requests-per-minute}")
+    private int authRequestsPerMinute;
+    @Value("${application.rate-limit.auth.burst}")
+    private int authBurst;
+    @Value("${application.rate-limit.bookings.requests-per-minute}")
+    private int bookingRequestsPerMinute;
+    @Value("${application.rate-limit.bookings.burst}")
+    private int bookingBurst;
+
+    private Route auth;
+    private Route bookings;
+    private Cache<BucketKey, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        auth = new Route("auth", authBurst, Duration.ofMinutes(1).dividedBy(authRequestsPerMinute));
+        bookings = new Route("bookings", bookingBurst, Duration.ofMinutes(1).dividedBy(bookingRequestsPerMinute));
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Route route = route(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(new BucketKey(route, client(request)), key -> route.newBucket(now))
+                .tryTake(now);
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        reject(response, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    private Route route(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        if ("POST".equals(method) && path.startsWith("/auth/")) {
+            return auth;
+        }
+        if (("POST".equals(method) || "DELETE".equals(method)) && path.startsWith("/bookings/")) {
+            return bookings;
+        }
+        return null;
+    }
+
+    private static String client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return "user:" + principal.user().getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        ExceptionResponse errorResponse = ExceptionResponse.builder()
+                .code(RATE_LIMITED.getCode())
+                .message(RATE_LIMITED.getDescription())
+                .details("Retry in " + retryAfterSeconds + " second(s)")
+                .build();
+
+        response.setStatus(RATE_LIMITED.getHttpStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(), errorResponse);
+    }
+
+    private record Route(String name, int burst, Duration refillPerToken) {
+        TokenBucket newBucket(long nowNanos) {
+            return new TokenBucket(burst, refillPerToken, nowNanos);
+        }
+    }
+
+    private record BucketKey(Route route, String client) {
+    }
+}
@@ -6,6 +6,8 @@ import com.ragab.booking.api.user.dto.UserProfileResponse;
 import com.ragab.booking.common.exception.custom.user.InvalidAgeException;
 import com.ragab.booking.common.exception.custom.user.InvalidGenderException;
 import com.ragab.booking.common.exception.custom.user.InvalidPasswordException;
+import com.ragab.booking.config.security.userdetails.CachingUserDetailsService;
+import com.ragab.booking.config.security.userdetails.SecurityVersionCache;
 import com.ragab.booking.core.user.mapper.UserMapper;
 import com.ragab.booking.core.user.model.Gender;
 import com.ragab.booking.core.user.model.Users;
@@ -29,6 +31,8 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final ProfilePhotoService profilePhotoService;
     private final UserMapper userMapper;
+    private final SecurityVersionCache securityVersionCache;
+    private final CachingUserDetailsService userDetailsService;
 
     public void changePassword(String email, ChangePasswordRequest request) {
         Users user = getUserByEmail(email);
@@ -38,7 +42,10 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(request.newPassword()));
+        user.bumpSecurityVersion();
         userRepository.save(user);
+        securityVersionCache.invalidate(user.getId());
+        userDetailsService.invalidate(email);
     }
 
     public void updateProfile(String email, UpdateProfileRequest request) {
@@ -57,14 +64,17 @@ public class UserService {
         }
 
         userRepository.save(user);
+        userDetailsService.invalidate(email);
     }
 
     public void updatePhoto(String email, MultipartFile file) {
         profilePhotoService.updateProfilePhoto(email, file);
+        userDetailsService.invalidate(email);
     }
 
     public void deletePhoto(String email) {
         profilePhotoService.deleteProfilePhoto(email);
+        userDetailsService.invalidate(email);
     }
 
     public UserProfileResponse getUserProfile(String email) {
@@ -0,0 +1,42 @@
+package com.ragab.booking.api.waitingroom.controller;
+
+import com.ragab.booking.api.waitingroom.dto.WaitingRoomStatus;
+import com.ragab.booking.api.waitingroom.filter.QueueHolderResolver;
+import com.ragab.booking.api.waitingroom.service.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static com.ragab.booking.api.waitingroom.filter.WaitingRoomFilter.QUEUE_TOKEN_HEADER;
+
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Tag(name = "Waiting room", description = "Queue for events under heavy demand")
+@RestController
+@RequestMapping("/waiting-room")
+public class WaitingRoomController {
+    private final WaitingRoomService waitingRoomService;
+    private final QueueHolderResolver queueHolderResolver;
+
+    @Operation(
+            summary = "Join the waiting room of an event",
+            description = "Returns a signed queue token bound to the caller; send it in the " + QUEUE_TOKEN_HEADER
+                    + " header once admitted, signed in as the same user"
+    )
+    @PostMapping("/{eventId}")
+    public ResponseEntity<WaitingRoomStatus> join(@PathVariable Integer eventId, HttpServletRequest request) {
+        return ResponseEntity.ok(waitingRoomService.join(eventId, queueHolderResolver.resolve(request)));
+    }
+
+    @Operation(summary = "Check your place in line", description = "Answered from memory, without touching the database")
+    @GetMapping("/status")
+    public ResponseEntity<WaitingRoomStatus> status(
+            @RequestHeader(QUEUE_TOKEN_HEADER) String token,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity.ok(waitingRoomService.status(token, queueHolderResolver.resolve(request)));
+    }
+}
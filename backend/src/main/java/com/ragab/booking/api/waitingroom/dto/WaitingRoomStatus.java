@@ -0,0 +1,11 @@
+package com.ragab.booking.api.waitingroom.dto;
+
+public record WaitingRoomStatus(
+        String token,
+        Integer eventId,
+        long position,
+        boolean admitted,
+        long ahead,
+        long estimatedWaitSeconds
+) {
+}
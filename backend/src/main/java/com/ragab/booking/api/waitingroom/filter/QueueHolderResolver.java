@@ -0,0 +1,37 @@
+package com.ragab.booking.api.waitingroom.filter;
+
+import com.ragab.booking.config.security.jwt.JwtService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * Names whoever holds a queue token: the signed-in user when the request carries a valid
+ * access token, otherwise the client address. The waiting room runs before authentication,
+ * so the access token is only verified here, which needs no database work.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class QueueHolderResolver {
+    private final JwtService jwtService;
+
+    public String resolve(HttpServletRequest request) {
+        String authHeader = request.getHeader(AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                String subject = jwtService.decode(authHeader.substring(7)).subject();
+                if (subject != null) {
+                    return "user:" + subject;
+                }
+            } catch (JwtException | IllegalArgumentException ex) {
+                // an empty token fails with IllegalArgumentException rather than JwtException;
+                // left to the JWT filter to reject; queue as an anonymous client meanwhile
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
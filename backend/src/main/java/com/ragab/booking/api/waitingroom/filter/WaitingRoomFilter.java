@@ -0,0 +1,99 @@
+package com.ragab.booking.api.waitingroom.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
+import com.ragab.booking.api.waitingroom.dto.WaitingRoomStatus;
+import com.ragab.booking.api.waitingroom.service.WaitingRoomService;
+import com.ragab.booking.common.exception.custom.InvalidQueueTokenException;
+import com.ragab.booking.common.exception.handler.ExceptionResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.ragab.booking.common.exception.handler.BusinessErrorCode.WAITING_ROOM;
+
+/**
+ * Holds back event reads and bookings for hot events until the caller's queue token is
+ * admitted. It runs before authentication so queued users cost no database work.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class WaitingRoomFilter extends OncePerRequestFilter {
+    public static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    private static final Pattern GET_EVENT = Pattern.compile("^/event/(\\d+)$");
+    private static final Pattern BOOK_EVENT = Pattern.compile("^/bookings/(\\d+)/(book|hold)$");
+    private static final long MAX_RETRY_AFTER_SECONDS = 60;
+
+    private final WaitingRoomService waitingRoomService;
+    private final QueueHolderResolver queueHolderResolver;
+    private final FlashSaleEngine flashSaleEngine;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Integer eventId = guardedEventId(request);
+        if (eventId == null || !flashSaleEngine.isHighDemand(eventId)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        WaitingRoomStatus status;
+        try {
+            status = waitingRoomService.check(
+                    request.getHeader(QUEUE_TOKEN_HEADER), eventId, queueHolderResolver.resolve(request));
+        } catch (InvalidQueueTokenException ex) {
+            reject(response, ex.getMessage() + ". Join the waiting room at /waiting-room/" + eventId, 1);
+            return;
+        }
+        if (!status.admitted()) {
+            reject(response, "You are number " + (status.ahead() + 1) + " in line", status.estimatedWaitSeconds());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Integer guardedEventId(HttpServletRequest request) {
+        Pattern pattern = switch (request.getMethod()) {
+            case "GET" -> GET_EVENT;
+            case "POST" -> BOOK_EVENT;
+            default -> null;
+        };
+        if (pattern == null) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(request.getServletPath());
+        return matcher.matches() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private void reject(HttpServletResponse response, String details, long retryAfterSeconds) throws IOException {
+        ExceptionResponse errorResponse = ExceptionResponse.builder()
+                .code(WAITING_ROOM.getCode())
+                .message(WAITING_ROOM.getDescription())
+                .details(details)
+                .errors(Map.of("queue", "Poll /waiting-room/status with your queue token until you are admitted"))
+                .build();
+
+        response.setStatus(WAITING_ROOM.getHttpStatus().value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.min(Math.max(retryAfterSeconds, 1), MAX_RETRY_AFTER_SECONDS)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getWriter(), errorResponse);
+    }
+}
@@ -0,0 +1,207 @@
+package com.ragab.booking.api.waitingroom.service;
+
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
+import com.ragab.booking.api.waitingroom.dto.WaitingRoomStatus;
+import com.ragab.booking.common.exception.custom.InvalidQueueTokenException;
+import com.ragab.booking.common.ratelimit.TokenBucket;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local waiting rooms for hot events.
+ * <p>
+ * Joining hands out the next queue position in a signed token, so later checks need
+ * nothing but this node's memory. The token names its holder, so a position cannot be
+ * passed on to someone else. A per-event token bucket moves the admitted position
+ * forward at a fixed rate. Rooms are not shared between nodes, so a user should keep
+ * polling the node that issued their position. Only events in high-demand mode get a room,
+ * and it is dropped again once the event leaves that mode or its last token has expired.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Service
+public class WaitingRoomService {
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${application.waiting-room.secret-key}")
+    private String secretKey;
+    @Value("${application.waiting-room.admissions-per-second}")
+    private double admissionsPerSecond;
+    @Value("${application.waiting-room.burst}")
+    private int burst;
+    @Value("${application.waiting-room.token-ttl-minutes}")
+    private long tokenTtlMinutes;
+
+    private final FlashSaleEngine flashSaleEngine;
+
+    private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    public void initialize() {
+        // domain-separate queue tokens from anything else signed with the same secret
+        byte[] key = ("waiting-room:" + secretKey).getBytes(StandardCharsets.UTF_8);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(new SecretKeySpec(key, HMAC_ALGORITHM));
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Cannot initialise waiting-room signer", ex);
+            }
+        });
+    }
+
+    /**
+     * @throws IllegalArgumentException if the event is not in high-demand mode, so it has no waiting room
+     */
+    public WaitingRoomStatus join(Integer eventId, String holder) {
+        if (!flashSaleEngine.isHighDemand(eventId)) {
+            throw new IllegalArgumentException("Event has no waiting room, request it directly");
+        }
+        long now = Instant.now().getEpochSecond();
+        AtomicLong issued = new AtomicLong();
+        // issued under the map's lock, so a room is never retired right after handing out a position
+        Room room = rooms.compute(eventId, (id, current) -> {
+            Room target = current == null ? new Room() : current;
+            issued.set(target.issued.incrementAndGet());
+            target.lastJoinedAt = now;
+            return target;
+        });
+        long position = issued.get();
+        long expiresAt = now + tokenTtlMinutes * 60;
+        String payload = eventId + "." + position + "." + expiresAt + "." + holder;
+        String token = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + sign(payload);
+        return status(token, eventId, position, room);
+    }
+
+    public WaitingRoomStatus status(String token, String holder) {
+        QueuePosition queuePosition = verify(token, holder);
+        return status(token, queuePosition.eventId(), queuePosition.position(), room(queuePosition));
+    }
+
+    /**
+     * @return the caller's status for the given event; check {@link WaitingRoomStatus#admitted()}
+     * @throws InvalidQueueTokenException if the token is forged, expired, for another event or
+     *                                     held by someone else
+     */
+    public WaitingRoomStatus check(String token, Integer eventId, String holder) {
+        QueuePosition queuePosition = verify(token, holder);
+        if (!queuePosition.eventId().equals(eventId)) {
+            throw new InvalidQueueTokenException("Queue token belongs to another event");
+        }
+        return status(token, eventId, queuePosition.position(), room(queuePosition));
+    }
+
+    /**
+     * Drops rooms of events that left high-demand mode, and rooms nobody joined for longer than
+     * a token lives, since every position they handed out has expired.
+     */
+    @Scheduled(fixedDelayString = "${application.waiting-room.sweep-interval-ms}")
+    public void retireRooms() {
+        long idleSince = Instant.now().getEpochSecond() - tokenTtlMinutes * 60;
+        for (Integer eventId : rooms.keySet()) {
+            boolean highDemand = flashSaleEngine.isHighDemand(eventId);
+            rooms.computeIfPresent(eventId,
+                    (id, room) -> !highDemand || room.lastJoinedAt < idleSince ? null : room);
+        }
+    }
+
+    private WaitingRoomStatus status(String token, Integer eventId, long position, Room room) {
+        long admitted = room.admit();
+        if (position <= admitted) {
+            return new WaitingRoomStatus(token, eventId, position, true, 0, 0);
+        }
+        long ahead = position - admitted - 1;
+        long estimatedWaitSeconds = (long) Math.ceil((position - admitted) / admissionsPerSecond);
+        return new WaitingRoomStatus(token, eventId, position, false, ahead, estimatedWaitSeconds);
+    }
+
+    private Room room(QueuePosition queuePosition) {
+        Room room = rooms.get(queuePosition.eventId());
+        // positions from before a restart or from another node mean nothing here
+        if (room == null || queuePosition.position() > room.issued.get()) {
+            throw new InvalidQueueTokenException("Queue position is unknown, please join the waiting room again");
+        }
+        return room;
+    }
+
+    private QueuePosition verify(String token, String holder) {
+        if (token == null) {
+            throw new InvalidQueueTokenException("Queue token is missing");
+        }
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            throw new InvalidQueueTokenException("Malformed queue token");
+        }
+        String payload;
+        try {
+            payload = new String(DECODER.decode(token.substring(0, separator)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidQueueTokenException("Malformed queue token");
+        }
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new InvalidQueueTokenException("Invalid queue token signature");
+        }
+
+        // the holder goes last, as it may contain dots itself
+        String[] parts = payload.split("\\.", 4);
+        if (parts.length != 4) {
+            throw new InvalidQueueTokenException("Malformed queue token");
+        }
+        if (!parts[3].equals(holder)) {
+            throw new InvalidQueueTokenException("Queue token belongs to someone else");
+        }
+        if (Long.parseLong(parts[2]) < Instant.now().getEpochSecond()) {
+            throw new InvalidQueueTokenException("Queue token has expired, please join the waiting room again");
+        }
+        return new QueuePosition(Integer.valueOf(parts[0]), Long.parseLong(parts[1]));
+    }
+
+    private String sign(String payload) {
+        return ENCODER.encodeToString(macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private record QueuePosition(Integer eventId, long position) {
+    }
+
+    /**
+     * Admits waiting positions in order, one per token taken from the event's bucket.
+     */
+    private final class Room {
+        private final AtomicLong issued = new AtomicLong();
+        private final AtomicLong admitted = new AtomicLong();
+        // epoch seconds, written under the map's lock
+        private volatile long lastJoinedAt;
+        private final TokenBucket bucket = new TokenBucket(
+                burst, Duration.ofNanos((long) (1e9 / admissionsPerSecond)), System.nanoTime());
+
+        private long admit() {
+            long now = System.nanoTime();
+            while (admitted.get() < issued.get() && bucket.tryTake(now) == 0) {
+                // a racing admitter may have taken the last waiting position meanwhile
+                admitted.accumulateAndGet(issued.get(), (current, waiting) -> Math.min(current + 1, waiting));
+            }
+            return admitted.get();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom;
+
+public class IdempotencyInProgressException extends RuntimeException {
+    public IdempotencyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
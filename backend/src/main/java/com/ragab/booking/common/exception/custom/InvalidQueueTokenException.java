@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom;
+
+public class InvalidQueueTokenException extends RuntimeException {
+    public InvalidQueueTokenException(String message) {
+        super(message);
+    }
+}
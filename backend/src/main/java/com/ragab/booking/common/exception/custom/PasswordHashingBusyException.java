@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
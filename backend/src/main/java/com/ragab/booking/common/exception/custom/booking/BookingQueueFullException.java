@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom.booking;
+
+public class BookingQueueFullException extends RuntimeException {
+    public BookingQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom.booking;
+
+public class HoldExpiredException extends RuntimeException {
+    public HoldExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ragab.booking.common.exception.custom.booking;
+
+public class SoldOutException extends RuntimeException {
+    public SoldOutException(String message) {
+        super(message);
+    }
+}
@@ -18,6 +18,7 @@ public enum BusinessErrorCode {
     INVALID_TOKEN(1006, UNAUTHORIZED, "Invalid token"),
     INVALID_REFRESH_TOKEN(1007, UNAUTHORIZED, "Invalid refresh token"),
     INVALID_JWT_SIGNATURE(1008, UNAUTHORIZED, "Invalid JWT signature"),
+    PASSWORD_HASHING_BUSY(1009, SERVICE_UNAVAILABLE, "Too many sign-in requests, please retry shortly"),
 
     // User Management
     EMAIL_ALREADY_EXISTS(2001, CONFLICT, "Email address already registered"),
@@ -36,6 +37,9 @@ public enum BusinessErrorCode {
     INVALID_ARGUMENT(4002, BAD_REQUEST, "Invalid argument provided"),
     DUPLICATE_RESOURCE(4003, CONFLICT, "Resource already exists"),
     ENTITY_NOT_FOUND(4004, NOT_FOUND, "Entity not found"),
+    IDEMPOTENCY_KEY_REUSED(4005, UNPROCESSABLE_ENTITY, "Idempotency key was already used for a different request"),
+    IDEMPOTENCY_IN_PROGRESS(4006, CONFLICT, "A request with this idempotency key is still being processed"),
+    RATE_LIMITED(4007, TOO_MANY_REQUESTS, "Too many requests, please slow down"),
     INTERNAL_ERROR(5001, INTERNAL_SERVER_ERROR, "Internal server error"),
 
     // Management
@@ -44,6 +48,11 @@ public enum BusinessErrorCode {
     // Booking Management
     BOOKING_ALREADY_EXISTS(7001, CONFLICT, "The selected slot is already booked"),
     EVENT_ALREADY_PASSED(7002, BAD_REQUEST, "Action not allowed on a past event"),
+    EVENT_SOLD_OUT(7003, CONFLICT, "No seats left for this event"),
+    BOOKING_QUEUE_FULL(7004, SERVICE_UNAVAILABLE, "Too many booking requests, please retry shortly"),
+    WAITING_ROOM(7005, TOO_MANY_REQUESTS, "Event is busy, please wait in the waiting room"),
+    INVALID_QUEUE_TOKEN(7006, BAD_REQUEST, "Invalid queue token"),
+    HOLD_EXPIRED(7007, GONE, "Seat hold has expired"),
     ;
 
     private final int code;
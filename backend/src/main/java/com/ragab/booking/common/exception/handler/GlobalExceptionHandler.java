@@ -2,7 +2,10 @@ package com.ragab.booking.common.exception.handler;
 
 import com.ragab.booking.common.exception.custom.*;
 import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.BookingQueueFullException;
 import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.common.exception.custom.booking.HoldExpiredException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
 import com.ragab.booking.common.exception.custom.user.InvalidAgeException;
 import com.ragab.booking.common.exception.custom.user.InvalidGenderException;
 import com.ragab.booking.common.exception.custom.user.InvalidPasswordException;
@@ -80,6 +83,26 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ExceptionResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return buildErrorResponse(
+                IDEMPOTENCY_KEY_REUSED,
+                ex.getMessage(),
+                null,
+                Map.of("Idempotency-Key", "Use a new key for a new request")
+        );
+    }
+
+    @ExceptionHandler(IdempotencyInProgressException.class)
+    public ResponseEntity<ExceptionResponse> handleIdempotencyInProgressException(IdempotencyInProgressException ex) {
+        return buildErrorResponse(
+                IDEMPOTENCY_IN_PROGRESS,
+                ex.getMessage(),
+                null,
+                Map.of("Idempotency-Key", "Retry with the same key shortly")
+        );
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ExceptionResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         log.warn("Invalid argument: {}", ex.getMessage());
@@ -227,6 +250,16 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidQueueTokenException.class)
+    public ResponseEntity<ExceptionResponse> handleInvalidQueueTokenException(InvalidQueueTokenException ex) {
+        return buildErrorResponse(
+                INVALID_QUEUE_TOKEN,
+                ex.getMessage(),
+                null,
+                Map.of("token", "Join the waiting room again to get a new queue token")
+        );
+    }
+
     @ExceptionHandler(TokenExpiredException.class)
     public ResponseEntity<ExceptionResponse> handleTokenExpiredException(TokenExpiredException ex) {
         log.warn("Token expired: {}", ex.getMessage());
@@ -292,6 +325,48 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ExceptionResponse> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        log.warn("Password hashing saturated: {}", ex.getMessage());
+        return buildErrorResponse(
+                PASSWORD_HASHING_BUSY,
+                ex.getMessage(),
+                null,
+                Map.of("password", "Password hashing capacity is exhausted")
+        );
+    }
+
+    @ExceptionHandler(BookingQueueFullException.class)
+    public ResponseEntity<ExceptionResponse> handleBookingQueueFullException(BookingQueueFullException ex) {
+        log.warn("Booking queue full: {}", ex.getMessage());
+        return buildErrorResponse(
+                BOOKING_QUEUE_FULL,
+                ex.getMessage(),
+                null,
+                Map.of("event", "Booking demand for this event exceeds what can be queued")
+        );
+    }
+
+    @ExceptionHandler(SoldOutException.class)
+    public ResponseEntity<ExceptionResponse> handleSoldOutException(SoldOutException ex) {
+        return buildErrorResponse(
+                EVENT_SOLD_OUT,
+                ex.getMessage(),
+                null,
+                Map.of("event", "All seats for this event are taken")
+        );
+    }
+
+    @ExceptionHandler(HoldExpiredException.class)
+    public ResponseEntity<ExceptionResponse> handleHoldExpiredException(HoldExpiredException ex) {
+        return buildErrorResponse(
+                HOLD_EXPIRED,
+                ex.getMessage(),
+                null,
+                Map.of("hold", "The held seat was released, place a new hold to book")
+        );
+    }
+
     @ExceptionHandler(FileUploadException.class)
     public ResponseEntity<ExceptionResponse> handleFileUploadException(FileUploadException ex) {
         log.error("File upload failed: {}", ex.getMessage());
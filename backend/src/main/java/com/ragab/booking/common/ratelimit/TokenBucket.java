@@ -0,0 +1,45 @@
+package com.ragab.booking.common.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept in its GCRA form: instead of a token count and a refill time,
+ * the whole state is the instant at which the bucket would next be full, so taking a token
+ * is a single compare-and-set and allocates nothing.
+ */
+public class TokenBucket {
+    private final long nanosPerToken;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param capacity       tokens available at once, i.e. the allowed burst
+     * @param refillPerToken time it takes to earn one token back
+     */
+    public TokenBucket(int capacity, Duration refillPerToken, long nowNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.nanosPerToken = refillPerToken.toNanos();
+        this.capacityNanos = capacity * nanosPerToken;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return {@code 0} if a token was taken; otherwise how many nanoseconds until one is available
+     */
+    public long tryTake(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -14,4 +14,5 @@ public record PageResponse<T>(
         boolean first,
         boolean last
 ) {
+    public static final int MAX_SIZE = 100;
 }
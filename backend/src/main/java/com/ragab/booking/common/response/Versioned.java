@@ -0,0 +1,14 @@
+package com.ragab.booking.common.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * A response body cached together with its validators, so a conditional request is answered
+ * without re-serialising the body. {@code lastModified} is null when nothing was shown.
+ */
+public record Versioned<T>(
+        T body,
+        String eTag,
+        LocalDateTime lastModified
+) {
+}
@@ -0,0 +1,102 @@
+package com.ragab.booking.common.scheduling;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel keyed by an id. Scheduling and cancelling are O(1); each tick only
+ * looks at the one slot whose time has come, so the cost of expiry does not grow with the
+ * number of pending timeouts.
+ * <p>
+ * The wheel does not run itself: the owner calls {@link #advance(long)} once per tick and
+ * handles the keys it returns. All methods are synchronized and cheap.
+ */
+public class HashedTimingWheel<K> {
+    private final long tickMillis;
+    private final long startMillis;
+    private final List<Set<Timeout<K>>> slots;
+    private final Map<K, Timeout<K>> timeouts = new HashMap<>();
+    private long nextTick;
+
+    public HashedTimingWheel(Duration tick, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+        this.tickMillis = tick.toMillis();
+        this.startMillis = startMillis;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}, replacing any earlier
+     * deadline for it. Deadlines already in the past expire on the next tick.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis), nextTick);
+        Timeout<K> timeout = new Timeout<>(key, deadlineTick);
+        slot(deadlineTick).add(timeout);
+        timeouts.put(key, timeout);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        slot(timeout.deadlineTick).remove(timeout);
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, catching up on missed ticks.
+     *
+     * @return the keys whose deadline has passed, which are no longer scheduled
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long nowTick = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        List<K> expired = new ArrayList<>();
+        // after a long pause every slot is due once; no need to visit any of them twice
+        long lastTick = Math.min(nowTick, nextTick + slots.size() - 1);
+        for (long tick = nextTick; tick <= lastTick; tick++) {
+            Iterator<Timeout<K>> iterator = slot(tick).iterator();
+            while (iterator.hasNext()) {
+                Timeout<K> timeout = iterator.next();
+                if (timeout.deadlineTick <= nowTick) {
+                    iterator.remove();
+                    timeouts.remove(timeout.key);
+                    expired.add(timeout.key);
+                }
+            }
+        }
+        nextTick = Math.max(nextTick, nowTick + 1);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private Set<Timeout<K>> slot(long tick) {
+        return slots.get((int) (tick & (slots.size() - 1)));
+    }
+
+    private static final class Timeout<K> {
+        private final K key;
+        private final long deadlineTick;
+
+        private Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
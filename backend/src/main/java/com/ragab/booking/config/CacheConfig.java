@@ -0,0 +1,51 @@
+package com.ragab.booking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String EVENTS = "events";
+    public static final String EVENT_PAGES = "eventPages";
+
+    @Value("${application.cache.events.max-size}")
+    private long eventsMaxSize;
+    @Value("${application.cache.events.ttl-seconds}")
+    private long eventsTtlSeconds;
+    @Value("${application.cache.event-pages.max-size}")
+    private long eventPagesMaxSize;
+    @Value("${application.cache.event-pages.ttl-seconds}")
+    private long eventPagesTtlSeconds;
+
+    /**
+     * Evictions are deferred until the surrounding transaction commits, so a reader
+     * can never re-populate a cache entry from a row that is about to change.
+     * Seat changes only evict the event itself; the seat counters on listing pages
+     * are left to the page TTL, so they may lag by up to that long.
+     * Hit/miss/eviction counters are exported as the {@code cache.*} actuator metrics.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EVENTS, Caffeine.newBuilder()
+                .maximumSize(eventsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(eventsTtlSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(EVENT_PAGES, Caffeine.newBuilder()
+                .maximumSize(eventPagesMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(eventPagesTtlSeconds))
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
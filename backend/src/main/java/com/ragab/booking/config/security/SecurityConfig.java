@@ -1,7 +1,10 @@
 package com.ragab.booking.config.security;
 
+import com.ragab.booking.api.ratelimit.filter.RateLimitFilter;
+import com.ragab.booking.api.waitingroom.filter.WaitingRoomFilter;
 import com.ragab.booking.config.security.jwt.JwtExceptionHandlerFilter;
 import com.ragab.booking.config.security.jwt.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -31,6 +34,8 @@ public class SecurityConfig {
     private final JwtFilter jwtAuthFilter;
     private final AuthenticationProvider authenticationProvider;
     private final JwtExceptionHandlerFilter jwtExceptionHandlerFilter;
+    private final WaitingRoomFilter waitingRoomFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(
@@ -41,9 +46,12 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(req ->
                         req
+                                // resumes a request that was already authorized, e.g. a queued booking
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers(
                                         "/auth/**",
                                         "/event/**",
+                                        "/waiting-room/**",
                                         "/v3/api-docs",
                                         "/v3/api-docs/**",
                                         "/swagger-resources",
@@ -54,6 +62,7 @@ public class SecurityConfig {
                                         "/webjars/**",
                                         "/swagger-ui.html"
                                 ).permitAll()
+                                .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                                 .anyRequest()
                                 .authenticated()
                 )
@@ -61,8 +70,11 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(STATELESS)
                 )
                 .authenticationProvider(authenticationProvider)
+                .addFilterBefore(waitingRoomFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtExceptionHandlerFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // after the JWT filter, so buckets can be keyed by the signed-in user
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
@@ -0,0 +1,20 @@
+package com.ragab.booking.config.security.jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * An access token whose signature and expiry were verified, decoded once.
+ */
+public record DecodedToken(
+        String subject,
+        Integer userId,
+        Integer securityVersion,
+        List<String> authorities,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+    public DecodedToken {
+        authorities = authorities == null ? List.of() : List.copyOf(authorities);
+    }
+}
@@ -1,11 +1,14 @@
 package com.ragab.booking.config.security.jwt;
 
+import com.ragab.booking.config.security.userdetails.SecurityVersionCache;
+import com.ragab.booking.config.security.userdetails.UserPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -25,6 +28,10 @@ public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final SecurityVersionCache securityVersionCache;
+
+    @Value("${application.security.jwt.stateless-principal}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(
@@ -32,24 +39,23 @@ public class JwtFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
-        if (request.getServletPath().contains("/api/v1/auth")) {
+        if (request.getServletPath().contains("/api/v1/auth")
+                || request.getServletPath().startsWith("/waiting-room/")) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        final String authHeader = request.getHeader(AUTHORIZATION),
-                jwt, userEmail;
+        final String authHeader = request.getHeader(AUTHORIZATION);
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
 //            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid or missing Authorization header");
             filterChain.doFilter(request, response);
             return;
         }
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        final DecodedToken token = jwtService.decode(authHeader.substring(7));
+        if (token.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolvePrincipal(token);
+            if (userDetails != null && jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities()
@@ -62,4 +68,19 @@ public class JwtFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds the principal from the token's claims when it carries a user id and security
+     * version, checking only that the version is current; older tokens load the user.
+     *
+     * @return {@code null} if the token has been revoked
+     */
+    private UserDetails resolvePrincipal(DecodedToken token) {
+        if (statelessPrincipal && token.userId() != null && token.securityVersion() != null) {
+            return securityVersionCache.isCurrent(token.userId(), token.securityVersion())
+                    ? UserPrincipal.fromToken(token)
+                    : null;
+        }
+        return userDetailsService.loadUserByUsername(token.subject());
+    }
 }
@@ -1,19 +1,27 @@
 package com.ragab.booking.config.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ragab.booking.config.security.userdetails.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 
 @Service
 public class JwtService {
@@ -23,22 +31,74 @@ public class JwtService {
     @Value("${application.security.jwt.secret-key}")
     private String SECRET_KEY;
 
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    @Value("${application.security.jwt.verified-cache.max-size}")
+    private long verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, DecodedToken> verified;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, DecodedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, DecodedToken decoded, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), decoded.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, DecodedToken decoded, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, DecodedToken decoded, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies the signature and expiry of the token and decodes its claims, all in one parse.
+     * Tokens verified recently are answered from memory until they expire; the cache compares
+     * the whole token string, so only the exact token that was verified can hit.
+     *
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException        if the token is malformed or its signature is invalid
+     */
+    public DecodedToken decode(String token) {
+        DecodedToken cached = verified.getIfPresent(token);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        DecodedToken decoded = new DecodedToken(
+                claims.getSubject(),
+                claims.get("uid", Integer.class),
+                claims.get("ver", Integer.class),
+                authorities(claims),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration())
+        );
+        if (decoded.expiresAt() != null) {
+            verified.put(token, decoded);
+        }
+        return decoded;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Forgets the verified tokens of the user, e.g. on logout.
+     */
+    public void forgetVerifiedTokens(String subject) {
+        verified.asMap().values().removeIf(decoded -> subject.equals(decoded.subject()));
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -59,33 +119,42 @@ public class JwtService {
                 .map(GrantedAuthority::getAuthority)
                 .toList();
 
-        return Jwts.builder()
-                .claims(extraClaims)
+        var builder = Jwts.builder()
+                .claims(extraClaims);
+        if (userDetails instanceof UserPrincipal principal) {
+            builder.claim("uid", principal.user().getId())
+                    .claim("ver", principal.user().getSecurityVersion());
+        }
+        return builder
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
                 .claim("authorities", authorities)
-                .signWith(getSignInKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())
-                && !isTokenExpired(token)
-        );
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Checks the token belongs to the user and, for tokens that carry one, that the user's
+     * security version has not moved on since it was issued.
+     */
+    public boolean isTokenValid(DecodedToken token, UserDetails userDetails) {
+        if (token.subject() == null || !token.subject().equals(userDetails.getUsername())) {
+            return false;
+        }
+        return token.securityVersion() == null
+                || !(userDetails instanceof UserPrincipal principal)
+                || token.securityVersion() == principal.user().getSecurityVersion();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static List<String> authorities(Claims claims) {
+        if (!(claims.get("authorities") instanceof List<?> authorities)) {
+            return List.of();
+        }
+        return authorities.stream().map(String::valueOf).toList();
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 }
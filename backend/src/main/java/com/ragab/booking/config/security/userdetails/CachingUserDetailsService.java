@@ -0,0 +1,84 @@
+package com.ragab.booking.config.security.userdetails;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Caches the principals loaded by {@link UserDetailsServiceImpl} for request authentication.
+ * <p>
+ * Writes that change what a principal holds call {@link #invalidate(String)}: the entry is dropped
+ * here once the transaction commits, and other nodes are told through a Postgres notification that
+ * is only delivered on commit. Entries expire {@code ttl-seconds} after they were loaded whatever
+ * happens, which bounds how long a missed invalidation can keep a disabled or demoted user alive.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Primary
+@Service
+public class CachingUserDetailsService implements UserDetailsService {
+    static final String INVALIDATION_CHANNEL = "user_details_invalidation";
+
+    private final UserDetailsServiceImpl delegate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${application.security.user-details-cache.max-size}")
+    private long maxSize;
+    @Value("${application.security.user-details-cache.ttl-seconds}")
+    private long ttlSeconds;
+
+    private Ticker ticker = Ticker.systemTicker();
+    private Cache<String, UserDetails> principals;
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String userEmail) throws UsernameNotFoundException {
+        return principals.get(userEmail, delegate::loadUserByUsername);
+    }
+
+    /**
+     * Drops the user's principal on every node once the surrounding transaction commits.
+     */
+    public void invalidate(String userEmail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userEmail);
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, INVALIDATION_CHANNEL, userEmail);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userEmail);
+            }
+        });
+    }
+
+    void evict(String userEmail) {
+        principals.invalidate(userEmail);
+    }
+
+    void evictAll() {
+        principals.invalidateAll();
+    }
+}
@@ -0,0 +1,67 @@
+package com.ragab.booking.config.security.userdetails;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ragab.booking.core.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Node-local view of each enabled user's security version, so that principals rebuilt from
+ * token claims can be checked against current state without a query per request.
+ * <p>
+ * Changes made on this node are invalidated once they commit; changes made on other nodes
+ * are picked up when the entry expires.
+ */
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@Component
+public class SecurityVersionCache {
+    private final UserRepository userRepository;
+
+    @Value("${application.security.security-version.max-size}")
+    private long maxSize;
+    @Value("${application.security.security-version.ttl-seconds}")
+    private long ttlSeconds;
+
+    private Cache<Integer, Integer> versions;
+
+    @PostConstruct
+    void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * @return whether the user is enabled and still at the given security version
+     */
+    public boolean isCurrent(Integer userId, int securityVersion) {
+        Integer current = versions.get(userId,
+                id -> userRepository.findSecurityVersionOfEnabledUser(id).orElse(null));
+        return current != null && current == securityVersion;
+    }
+
+    /**
+     * Drops the cached version once the surrounding transaction commits.
+     */
+    public void invalidate(Integer userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.invalidate(userId);
+            }
+        });
+    }
+}
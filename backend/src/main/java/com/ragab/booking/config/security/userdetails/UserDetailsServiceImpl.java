@@ -4,6 +4,7 @@ import com.ragab.booking.core.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository repository;
 
@@ -22,4 +23,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .map(UserPrincipal::new)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + userEmail));
     }
+
+    /**
+     * Stores a re-hashed password after a successful login with a hash of an older work factor.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        return repository.findByEmail(user.getUsername())
+                .map(entity -> {
+                    entity.setPassword(newPassword);
+                    return new UserPrincipal(entity);
+                })
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email : " + user.getUsername()));
+    }
 }
\ No newline at end of file
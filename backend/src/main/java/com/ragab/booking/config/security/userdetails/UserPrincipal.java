@@ -1,5 +1,6 @@
 package com.ragab.booking.config.security.userdetails;
 
+import com.ragab.booking.config.security.jwt.DecodedToken;
 import com.ragab.booking.core.user.model.Users;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -9,6 +10,20 @@ import java.util.Collection;
 import java.util.List;
 
 public record UserPrincipal(Users user) implements UserDetails {
+    /**
+     * Rebuilds the principal from verified token claims alone. Only the id, email, role and
+     * security version are known; profile fields stay unset.
+     */
+    public static UserPrincipal fromToken(DecodedToken token) {
+        return new UserPrincipal(Users.builder()
+                .id(token.userId())
+                .email(token.subject())
+                .isAdmin(token.authorities().contains("ROLE_ADMIN"))
+                .enabled(true)
+                .securityVersion(token.securityVersion())
+                .build());
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return user.isAdmin() ?
@@ -72,12 +72,12 @@ public class RefreshTokenService {
         return true;
     }
 
-    public void revokeRefreshToken(String token) {
+    public RefreshToken revokeRefreshToken(String token) {
         RefreshToken refreshToken = repo.findByToken(token)
                 .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token not found"));
 
         refreshToken.setRevoked(true);
-        repo.save(refreshToken);
+        return repo.save(refreshToken);
     }
 
     public RefreshToken rotateRefreshToken(RefreshToken oldToken) {
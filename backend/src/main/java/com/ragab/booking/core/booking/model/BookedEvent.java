@@ -0,0 +1,7 @@
+package com.ragab.booking.core.booking.model;
+
+public interface BookedEvent {
+    Integer getId();
+
+    Integer getEventId();
+}
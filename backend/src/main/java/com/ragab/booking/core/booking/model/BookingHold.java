@@ -0,0 +1,32 @@
+package com.ragab.booking.core.booking.model;
+
+import com.ragab.booking.common.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A seat set aside for one user until {@code expiresAt}; counted in the event's held seats.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "booking_holds")
+public class BookingHold extends BaseEntity {
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Integer userId;
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private Integer eventId;
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.ragab.booking.core.booking.model;
+
+/**
+ * What a conditional cancellation found, and whether it removed the booking.
+ */
+public interface CancellationOutcome {
+    Integer getUserId();
+
+    /**
+     * {@code null} if the event was deleted.
+     */
+    Integer getEventId();
+
+    Boolean getUpcoming();
+
+    Boolean getCancelled();
+}
@@ -0,0 +1,10 @@
+package com.ragab.booking.core.booking.model;
+
+public interface HoldConfirmation {
+    /**
+     * {@code null} if the user had already booked the event.
+     */
+    Integer getBookingId();
+
+    Integer getEventId();
+}
@@ -0,0 +1,6 @@
+package com.ragab.booking.core.booking.model;
+
+import java.time.LocalDateTime;
+
+public record HoldDeadline(Integer id, LocalDateTime expiresAt) {
+}
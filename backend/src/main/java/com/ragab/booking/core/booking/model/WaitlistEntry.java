@@ -0,0 +1,31 @@
+package com.ragab.booking.core.booking.model;
+
+import com.ragab.booking.common.model.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A user waiting for a seat on a full event. Entries are served in {@code position} order,
+ * which comes from a database sequence and is never rewritten.
+ */
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "waitlist_entries")
+public class WaitlistEntry extends BaseEntity {
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Integer userId;
+    @Column(name = "event_id", nullable = false, updatable = false)
+    private Integer eventId;
+    @Column(nullable = false, insertable = false, updatable = false)
+    private Long position;
+}
@@ -0,0 +1,10 @@
+package com.ragab.booking.core.booking.model;
+
+public interface WaitlistJoin {
+    Integer getId();
+
+    /**
+     * Entries queued before this one at the time of joining.
+     */
+    Long getAhead();
+}
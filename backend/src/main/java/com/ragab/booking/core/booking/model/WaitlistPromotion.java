@@ -0,0 +1,11 @@
+package com.ragab.booking.core.booking.model;
+
+public interface WaitlistPromotion {
+    Integer getBookingId();
+
+    String getEmail();
+
+    String getUsername();
+
+    String getEventName();
+}
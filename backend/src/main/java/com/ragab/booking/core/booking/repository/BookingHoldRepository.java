@@ -0,0 +1,155 @@
+package com.ragab.booking.core.booking.repository;
+
+import com.ragab.booking.core.booking.model.BookingHold;
+import com.ragab.booking.core.booking.model.BookingInsert;
+import com.ragab.booking.core.booking.model.HoldConfirmation;
+import com.ragab.booking.core.booking.model.HoldDeadline;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingHoldRepository extends JpaRepository<BookingHold, Integer> {
+    /**
+     * Holds a seat in one statement, on the same terms as a direct booking: the event must be
+     * upcoming, not already booked by the user, and have a seat that is neither booked nor held.
+     *
+     * @return empty if nothing was held; otherwise the hold id and whether the seat was
+     * still free once the event row lock was held
+     */
+    @Query(value = """
+            WITH hold AS (
+                INSERT INTO booking_holds (user_id, event_id, expires_at)
+                SELECT :userId, e.id, :expiresAt
+                FROM events e
+                WHERE e.id = :eventId
+                  AND e.date > :now
+                  AND (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity)
+                  AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.user_id = :userId AND b.event_id = e.id)
+                ON CONFLICT (user_id, event_id) DO NOTHING
+                RETURNING id, event_id
+            ), seat AS (
+                UPDATE events e
+                SET held_count = e.held_count + 1
+                FROM hold h
+                WHERE e.id = h.event_id
+                  AND (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity)
+                RETURNING e.id
+            )
+            SELECT h.id AS id, EXISTS (SELECT 1 FROM seat) AS seated
+            FROM hold h
+            """, nativeQuery = true)
+    Optional<BookingInsert> placeHold(
+            @Param("userId") Integer userId,
+            @Param("eventId") Integer eventId,
+            @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt
+    );
+
+    /**
+     * Turns a live hold into a booking: the hold is removed and its seat moves from held to
+     * booked. A hold whose event has started can no longer be confirmed.
+     *
+     * @return empty if the user has no live hold with that id
+     */
+    @Query(value = """
+            WITH hold AS (
+                DELETE FROM booking_holds h
+                USING events e
+                WHERE h.id = :holdId
+                  AND h.user_id = :userId
+                  AND h.expires_at > :now
+                  AND e.id = h.event_id
+                  AND e.date > :now
+                RETURNING h.event_id
+            ), booking AS (
+                INSERT INTO bookings (user_id, event_id, created_by)
+                SELECT :userId, event_id, :userId
+                FROM hold
+                ON CONFLICT (user_id, event_id) DO NOTHING
+                RETURNING id
+            ), seat AS (
+                UPDATE events e
+                SET held_count   = e.held_count - 1,
+                    booked_count = e.booked_count + (SELECT COUNT(*) FROM booking)
+                FROM hold h
+                WHERE e.id = h.event_id
+                RETURNING e.id
+            )
+            SELECT (SELECT id FROM booking) AS "bookingId", h.event_id AS "eventId"
+            FROM hold h
+            """, nativeQuery = true)
+    Optional<HoldConfirmation> confirmHold(
+            @Param("userId") Integer userId,
+            @Param("holdId") Integer holdId,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * @return the event whose seat was released, empty if the user had no such hold
+     */
+    @Query(value = """
+            WITH hold AS (
+                DELETE FROM booking_holds
+                WHERE id = :holdId AND user_id = :userId
+                RETURNING event_id
+            ), seat AS (
+                UPDATE events e
+                SET held_count = e.held_count - 1
+                FROM hold h
+                WHERE e.id = h.event_id
+                RETURNING e.id
+            )
+            SELECT CAST(id AS INTEGER) FROM seat
+            """, nativeQuery = true)
+    Optional<Integer> releaseHold(@Param("userId") Integer userId, @Param("holdId") Integer holdId);
+
+    /**
+     * Releases the given holds that are past their deadline, one seat per hold.
+     *
+     * @return the events that got seats back
+     */
+    @Query(value = """
+            WITH expired AS (
+                DELETE FROM booking_holds
+                WHERE id IN (:holdIds) AND expires_at <= :now
+                RETURNING event_id
+            ), seat AS (
+                UPDATE events e
+                SET held_count = e.held_count - c.released
+                FROM (SELECT event_id, COUNT(*) AS released FROM expired GROUP BY event_id) c
+                WHERE e.id = c.event_id
+                RETURNING e.id
+            )
+            SELECT CAST(id AS INTEGER) FROM seat
+            """, nativeQuery = true)
+    List<Integer> expireHolds(@Param("holdIds") Collection<Integer> holdIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Same as {@link #expireHolds} for every overdue hold, served by the expiry index.
+     */
+    @Query(value = """
+            WITH expired AS (
+                DELETE FROM booking_holds
+                WHERE expires_at <= :now
+                RETURNING event_id
+            ), seat AS (
+                UPDATE events e
+                SET held_count = e.held_count - c.released
+                FROM (SELECT event_id, COUNT(*) AS released FROM expired GROUP BY event_id) c
+                WHERE e.id = c.event_id
+                RETURNING e.id
+            )
+            SELECT CAST(id AS INTEGER) FROM seat
+            """, nativeQuery = true)
+    List<Integer> expireOverdueHolds(@Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.ragab.booking.core.booking.model.HoldDeadline(h.id, h.expiresAt) FROM BookingHold h")
+    List<HoldDeadline> findAllDeadlines();
+
+    boolean existsByUserIdAndEventId(Integer userId, Integer eventId);
+}
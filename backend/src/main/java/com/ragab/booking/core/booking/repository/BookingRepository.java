@@ -1,20 +1,166 @@
 package com.ragab.booking.core.booking.repository;
 
+import com.ragab.booking.api.booking.dto.BookedResponse;
+import com.ragab.booking.core.booking.model.BookedEvent;
 import com.ragab.booking.core.booking.model.Booking;
+import com.ragab.booking.core.booking.model.BookingInsert;
+import com.ragab.booking.core.booking.model.CancellationOutcome;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Integer> {
-    Booking findByUser_IdAndEvent_Id(Integer userId, Integer eventId);
+    /**
+     * Books a seat in one statement. The booking is inserted only if the event is upcoming
+     * and has seats that are neither booked nor held, duplicates are skipped by the unique
+     * (user, event) constraint, and the seat is then taken under the event row lock.
+     *
+     * @return empty if nothing was inserted; otherwise the booking id and whether the seat
+     * was still free once the row lock was held
+     */
+    @Query(value = """
+            WITH booking AS (
+                INSERT INTO bookings (user_id, event_id, created_by)
+                SELECT :userId, e.id, :userId
+                FROM events e
+                WHERE e.id = :eventId
+                  AND e.date > :now
+                  AND (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity)
+                ON CONFLICT (user_id, event_id) DO NOTHING
+                RETURNING id, event_id
+            ), seat AS (
+                UPDATE events e
+                SET booked_count = e.booked_count + 1
+                FROM booking b
+                WHERE e.id = b.event_id
+                  AND (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity)
+                RETURNING e.id
+            )
+            SELECT b.id AS id, EXISTS (SELECT 1 FROM seat) AS seated
+            FROM booking b
+            """, nativeQuery = true)
+    Optional<BookingInsert> insertBooking(
+            @Param("userId") Integer userId,
+            @Param("eventId") Integer eventId,
+            @Param("now") LocalDateTime now
+    );
 
-    Page<Booking> findAllByUser_Id(Integer userId, Pageable pageable);
+    /**
+     * Books every given event for the user in one statement. Seats are not checked here;
+     * callers lock and check the events first.
+     */
+    @Query(value = """
+            INSERT INTO bookings (user_id, event_id, created_by)
+            SELECT :userId, e.id, :userId
+            FROM events e
+            WHERE e.id IN (:eventIds)
+            ORDER BY e.id
+            ON CONFLICT (user_id, event_id) DO NOTHING
+            RETURNING id, event_id AS "eventId"
+            """, nativeQuery = true)
+    List<BookedEvent> insertBookings(@Param("userId") Integer userId, @Param("eventIds") Collection<Integer> eventIds);
 
-    @Query("SELECT b FROM Booking b WHERE b.id = ?1")
-    Optional<Booking> findByBookingId(Integer bookingId);
+    /**
+     * Cancels the booking in one statement if it belongs to the user and its event is still
+     * upcoming, giving the seat back under the event row lock.
+     *
+     * @return empty if there is no such booking; otherwise what was checked and whether the
+     * booking was cancelled
+     */
+    @Query(value = """
+            WITH target AS (
+                SELECT b.id, b.user_id, b.event_id, COALESCE(e.date > :now, FALSE) AS upcoming
+                FROM bookings b
+                         LEFT JOIN events e ON e.id = b.event_id
+                WHERE b.id = :bookingId
+            ), cancelled AS (
+                DELETE FROM bookings b
+                USING target t
+                WHERE b.id = t.id
+                  AND t.user_id = :userId
+                  AND t.upcoming
+                RETURNING b.event_id
+            ), seat AS (
+                UPDATE events e
+                SET booked_count = e.booked_count - 1
+                FROM cancelled c
+                WHERE e.id = c.event_id
+                  AND e.booked_count > 0
+                RETURNING e.id
+            )
+            SELECT t.user_id AS "userId",
+                   t.event_id AS "eventId",
+                   t.upcoming AS "upcoming",
+                   EXISTS (SELECT 1 FROM cancelled) AS "cancelled"
+            FROM target t
+            """, nativeQuery = true)
+    Optional<CancellationOutcome> cancelBooking(
+            @Param("userId") Integer userId,
+            @Param("bookingId") Integer bookingId,
+            @Param("now") LocalDateTime now
+    );
 
-    int countByEvent_Id(Integer eventId);
+    /**
+     * Cancels up to {@code chunkSize} bookings of the event, lowest ids first, and takes them
+     * off its booked count.
+     *
+     * @return the number of bookings cancelled
+     */
+    @Query(value = """
+            WITH cancelled AS (
+                DELETE FROM bookings
+                WHERE id IN (SELECT id FROM bookings WHERE event_id = :eventId ORDER BY id LIMIT :chunkSize)
+                RETURNING id
+            ), seat AS (
+                UPDATE events
+                SET booked_count = GREATEST(booked_count - (SELECT COUNT(*) FROM cancelled), 0)
+                WHERE id = :eventId
+                RETURNING id
+            )
+            SELECT CAST(COUNT(*) AS INTEGER) FROM cancelled
+            """, nativeQuery = true)
+    int cancelEventBookingsChunk(@Param("eventId") Integer eventId, @Param("chunkSize") int chunkSize);
+
+    boolean existsByUser_IdAndEvent_Id(Integer userId, Integer eventId);
+
+    /**
+     * Reads only the listed columns, newest first; bookings whose event was deleted are
+     * left out by the join, so they never shorten a page.
+     */
+    @Query(value = """
+            SELECT new com.ragab.booking.api.booking.dto.BookedResponse(b.id, e.id, e.name, e.eventDate, b.createdDate)
+            FROM Booking b JOIN b.event e
+            WHERE b.user.id = :userId
+            ORDER BY b.createdDate DESC, b.id DESC
+            """,
+            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.user.id = :userId AND b.event IS NOT NULL")
+    Page<BookedResponse> findBookedResponses(@Param("userId") Integer userId, Pageable pageable);
+
+    @Query("""
+            SELECT b FROM Booking b JOIN FETCH b.event
+            WHERE b.user.id = :userId
+            ORDER BY b.createdDate DESC, b.id DESC
+            """)
+    List<Booking> findKeysetPage(@Param("userId") Integer userId, Limit limit);
+
+    @Query("""
+            SELECT b FROM Booking b JOIN FETCH b.event
+            WHERE b.user.id = :userId
+              AND (b.createdDate < :createdDate OR (b.createdDate = :createdDate AND b.id < :id))
+            ORDER BY b.createdDate DESC, b.id DESC
+            """)
+    List<Booking> findKeysetPageAfter(
+            @Param("userId") Integer userId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Limit limit
+    );
 }
@@ -0,0 +1,107 @@
+package com.ragab.booking.core.booking.repository;
+
+import com.ragab.booking.core.booking.model.WaitlistEntry;
+import com.ragab.booking.core.booking.model.WaitlistJoin;
+import com.ragab.booking.core.booking.model.WaitlistPromotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Integer> {
+    /**
+     * Queues the user on an upcoming event whose seats are all booked or held.
+     *
+     * @return empty if the user was not queued
+     */
+    @Query(value = """
+            WITH entry AS (
+                INSERT INTO waitlist_entries (user_id, event_id)
+                SELECT :userId, e.id
+                FROM events e
+                WHERE e.id = :eventId
+                  AND e.date > :now
+                  AND e.capacity IS NOT NULL
+                  AND e.booked_count + e.held_count >= e.capacity
+                  AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.user_id = :userId AND b.event_id = e.id)
+                ON CONFLICT (user_id, event_id) DO NOTHING
+                RETURNING id, position
+            )
+            SELECT entry.id AS id,
+                   (SELECT COUNT(*) FROM waitlist_entries w
+                    WHERE w.event_id = :eventId AND w.position < entry.position) AS ahead
+            FROM entry
+            """, nativeQuery = true)
+    Optional<WaitlistJoin> joinWaitlist(
+            @Param("userId") Integer userId,
+            @Param("eventId") Integer eventId,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Books the free seat for the first waiter in line and removes their entry. The head is
+     * read from the (event, position) index, so the cost does not depend on the queue length.
+     * Waiters who booked the event on their own in the meantime are passed over, and only
+     * those entries, the ones ahead of the promoted waiter, are deleted along the way; when
+     * nobody is promoted nothing is deleted.
+     * <p>
+     * Must run in the transaction that freed the seat, after it has locked the event row.
+     *
+     * @return empty if nobody was waiting or the event has no free seat
+     */
+    @Query(value = """
+            WITH next AS (
+                SELECT w.id, w.user_id, w.position
+                FROM waitlist_entries w
+                WHERE w.event_id = :eventId
+                  AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.user_id = w.user_id AND b.event_id = w.event_id)
+                  AND EXISTS (SELECT 1 FROM events e
+                              WHERE e.id = w.event_id
+                                AND e.date > :now
+                                AND (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity))
+                ORDER BY w.position
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            ), passed_over AS (
+                DELETE FROM waitlist_entries w
+                USING next n
+                WHERE w.event_id = :eventId
+                  AND w.position < n.position
+                  AND EXISTS (SELECT 1 FROM bookings b WHERE b.user_id = w.user_id AND b.event_id = w.event_id)
+            ), promoted AS (
+                DELETE FROM waitlist_entries w
+                USING next n
+                WHERE w.id = n.id
+                RETURNING w.user_id
+            ), booking AS (
+                INSERT INTO bookings (user_id, event_id, created_by)
+                SELECT user_id, :eventId, user_id
+                FROM promoted
+                ON CONFLICT (user_id, event_id) DO NOTHING
+                RETURNING id, user_id
+            ), seat AS (
+                UPDATE events e
+                SET booked_count = e.booked_count + 1
+                FROM booking b
+                WHERE e.id = :eventId
+                RETURNING e.name
+            )
+            SELECT b.id AS "bookingId",
+                   u.email AS "email",
+                   u.firstname || ' ' || u.lastname AS "username",
+                   s.name AS "eventName"
+            FROM booking b
+                     JOIN users u ON u.id = b.user_id
+                     CROSS JOIN seat s
+            """, nativeQuery = true)
+    Optional<WaitlistPromotion> promoteNext(@Param("eventId") Integer eventId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.userId = :userId AND w.eventId = :eventId")
+    int leaveWaitlist(@Param("userId") Integer userId, @Param("eventId") Integer eventId);
+
+    boolean existsByUserIdAndEventId(Integer userId, Integer eventId);
+}
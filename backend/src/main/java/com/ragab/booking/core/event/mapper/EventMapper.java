@@ -6,11 +6,20 @@ import com.ragab.booking.core.event.model.Event;
 import com.ragab.booking.core.tag.model.Tag;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
 public class EventMapper {
     public EventResponse toResponse(Event event, String imageUrl) {
+        return toResponse(
+                event,
+                event.getTags().stream().map(Tag::getName).collect(Collectors.toSet()),
+                imageUrl
+        );
+    }
+
+    public EventResponse toResponse(Event event, Set<String> tags, String imageUrl) {
         return new EventResponse(
                 event.getId(),
                 event.getName(),
@@ -18,8 +27,12 @@ public class EventMapper {
                 event.getEventDate(),
                 event.getPrice(),
                 event.getVenue(),
+                event.getBookedCount(),
+                event.getCapacity(),
+                event.getRemaining(),
+                event.isHighDemand(),
                 event.getCategory() != null ? event.getCategory().getName() : null,
-                event.getTags().stream().map(Tag::getName).collect(Collectors.toSet()),
+                tags,
                 imageUrl,
                 event.isUpcoming()
         );
@@ -32,6 +45,8 @@ public class EventMapper {
         event.setEventDate(dto.eventDate());
         event.setPrice(dto.price());
         event.setVenue(dto.venue());
+        event.setCapacity(dto.capacity());
+        event.setHighDemand(dto.highDemand());
         return event;
     }
 
@@ -38,6 +38,25 @@ public class Event extends AuditableEntity {
     private BigDecimal price;
     @Column(nullable = false)
     private String venue;
+    /**
+     * Maintained by atomic UPDATEs in the booking flow, so entity writes never overwrite it.
+     */
+    @Column(name = "booked_count", nullable = false, insertable = false, updatable = false)
+    private int bookedCount;
+    /**
+     * Seats set aside by unexpired holds; maintained like {@link #bookedCount}.
+     */
+    @Column(name = "held_count", nullable = false, insertable = false, updatable = false)
+    private int heldCount;
+    /**
+     * Seats on sale; {@code null} means the event is not limited.
+     */
+    private Integer capacity;
+    /**
+     * Routes bookings through the flash-sale engine instead of one transaction per request.
+     */
+    @Column(name = "high_demand", nullable = false)
+    private boolean highDemand;
 
     @OneToMany(mappedBy = "event", cascade = CascadeType.MERGE)
     private Set<Booking> bookings = new HashSet<>();
@@ -56,4 +75,8 @@ public class Event extends AuditableEntity {
     public boolean isUpcoming() {
         return eventDate.isAfter(LocalDateTime.now());
     }
+
+    public Integer getRemaining() {
+        return capacity == null ? null : Math.max(capacity - bookedCount - heldCount, 0);
+    }
 }
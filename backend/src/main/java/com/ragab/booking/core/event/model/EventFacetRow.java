@@ -0,0 +1,12 @@
+package com.ragab.booking.core.event.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record EventFacetRow(
+        Integer eventId,
+        String category,
+        LocalDateTime eventDate,
+        BigDecimal price
+) {
+}
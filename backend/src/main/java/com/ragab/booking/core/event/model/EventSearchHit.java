@@ -0,0 +1,7 @@
+package com.ragab.booking.core.event.model;
+
+public interface EventSearchHit {
+    Integer getId();
+
+    Float getRank();
+}
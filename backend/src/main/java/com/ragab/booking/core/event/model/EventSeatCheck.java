@@ -0,0 +1,11 @@
+package com.ragab.booking.core.event.model;
+
+public interface EventSeatCheck {
+    Integer getId();
+
+    Boolean getUpcoming();
+
+    Boolean getAvailable();
+
+    Boolean getBooked();
+}
@@ -0,0 +1,7 @@
+package com.ragab.booking.core.event.model;
+
+public record EventTag(
+        Integer eventId,
+        String tagName
+) {
+}
@@ -0,0 +1,15 @@
+package com.ragab.booking.core.event.model;
+
+import java.time.LocalDateTime;
+
+public interface EventVersion {
+    LocalDateTime getLastModified();
+
+    Integer getBookedCount();
+
+    Integer getRemaining();
+
+    Boolean getUpcoming();
+
+    String getImageUrl();
+}
@@ -1,8 +1,194 @@
 package com.ragab.booking.core.event.repository;
 
 import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.model.EventFacetRow;
+import com.ragab.booking.core.event.model.EventSearchHit;
+import com.ragab.booking.core.event.model.EventSeatCheck;
+import com.ragab.booking.core.event.model.EventTag;
+import com.ragab.booking.core.event.model.EventVersion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event> {
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT e FROM Event e ORDER BY e.eventDate DESC, e.id DESC")
+    List<Event> findKeysetPage(Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("""
+            SELECT e FROM Event e
+            WHERE e.eventDate < :eventDate OR (e.eventDate = :eventDate AND e.id < :id)
+            ORDER BY e.eventDate DESC, e.id DESC
+            """)
+    List<Event> findKeysetPageAfter(
+            @Param("eventDate") LocalDateTime eventDate,
+            @Param("id") Integer id,
+            Limit limit
+    );
+
+    @EntityGraph(attributePaths = "category")
+    List<Event> findAllByIdIn(Collection<Integer> ids);
+
+    @Query(value = """
+            SELECT e.id AS id, ts_rank(e.search_vector, q.query) AS rank
+            FROM events e, websearch_to_tsquery('english', :text) AS q(query)
+            WHERE e.search_vector @@ q.query
+            ORDER BY rank DESC, e.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<EventSearchHit> search(@Param("text") String text, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT e.id AS id, ts_rank(e.search_vector, q.query) AS rank
+            FROM events e, websearch_to_tsquery('english', :text) AS q(query)
+            WHERE e.search_vector @@ q.query
+              AND (ts_rank(e.search_vector, q.query), e.id) < (:rank, :id)
+            ORDER BY rank DESC, e.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<EventSearchHit> searchAfter(
+            @Param("text") String text,
+            @Param("rank") float rank,
+            @Param("id") Integer id,
+            @Param("limit") int limit
+    );
+
+    @Query("""
+            SELECT new com.ragab.booking.core.event.model.EventTag(e.id, t.name)
+            FROM Event e JOIN e.tags t
+            WHERE e.id IN :eventIds
+            """)
+    List<EventTag> findTagsByEventIds(@Param("eventIds") Collection<Integer> eventIds);
+
+    @Query("""
+            SELECT new com.ragab.booking.core.event.model.EventFacetRow(e.id, c.name, e.eventDate, e.price)
+            FROM Event e LEFT JOIN e.category c
+            WHERE e.eventDate > :now
+            """)
+    List<EventFacetRow> findUpcomingFacetRows(@Param("now") LocalDateTime now);
+
+    @Query("""
+            SELECT new com.ragab.booking.core.event.model.EventTag(e.id, t.name)
+            FROM Event e JOIN e.tags t
+            WHERE e.eventDate > :now
+            """)
+    List<EventTag> findUpcomingEventTags(@Param("now") LocalDateTime now);
+
+    @Query(value = """
+            SELECT COALESCE(e.last_modified_date, e.created_date) AS lastModified,
+                   e.booked_count AS bookedCount,
+                   CASE WHEN e.capacity IS NULL THEN NULL
+                        ELSE GREATEST(e.capacity - e.booked_count - e.held_count, 0) END AS remaining,
+                   e.date > :now AS upcoming,
+                   e.image_url AS imageUrl
+            FROM events e
+            WHERE e.id = :eventId
+            """, nativeQuery = true)
+    Optional<EventVersion> findVersionById(@Param("eventId") Integer eventId, @Param("now") LocalDateTime now);
+
+    @Query("SELECT e.highDemand FROM Event e WHERE e.id = :eventId")
+    Optional<Boolean> findHighDemandById(@Param("eventId") Integer eventId);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.bookedCount = e.bookedCount - 1 WHERE e.id = :eventId AND e.bookedCount > 0")
+    int decrementBookedCount(@Param("eventId") Integer eventId);
+
+    /**
+     * Finds events whose {@code booked_count} disagrees with their bookings. The answer comes
+     * from one snapshot and may be stale by the time it is used, so each event is recounted
+     * with {@link #recountBookedCount(Integer)} under its row lock.
+     */
+    @Query(value = """
+            SELECT e.id
+            FROM events e
+            WHERE e.booked_count <> (SELECT COUNT(*) FROM bookings b WHERE b.event_id = e.id)
+            """, nativeQuery = true)
+    List<Integer> findBookedCountDrift();
+
+    @Query(value = "SELECT e.id FROM events e WHERE e.id = :eventId FOR UPDATE", nativeQuery = true)
+    Optional<Integer> lockById(@Param("eventId") Integer eventId);
+
+    /**
+     * Rewrites {@code booked_count} from the event's bookings. Must run after
+     * {@link #lockById(Integer)} in the same transaction: the count is then taken from a snapshot
+     * that already holds every booking whose counter change committed before the lock.
+     *
+     * @return {@code 1} if the counter had drifted
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE events e
+            SET booked_count = c.booked
+            FROM (SELECT COUNT(*) AS booked FROM bookings b WHERE b.event_id = :eventId) c
+            WHERE e.id = :eventId AND e.booked_count <> c.booked
+            """, nativeQuery = true)
+    int recountBookedCount(@Param("eventId") Integer eventId);
+
+    /**
+     * Finds events whose {@code held_count} disagrees with their holds; like
+     * {@link #findBookedCountDrift()}, each one is recounted under its row lock.
+     */
+    @Query(value = """
+            SELECT e.id
+            FROM events e
+            WHERE e.held_count <> (SELECT COUNT(*) FROM booking_holds h WHERE h.event_id = e.id)
+            """, nativeQuery = true)
+    List<Integer> findHeldCountDrift();
+
+    /**
+     * Rewrites {@code held_count} from the event's holds. Must run after
+     * {@link #lockById(Integer)} in the same transaction.
+     *
+     * @return {@code 1} if the counter had drifted
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE events e
+            SET held_count = c.held
+            FROM (SELECT COUNT(*) AS held FROM booking_holds h WHERE h.event_id = :eventId) c
+            WHERE e.id = :eventId AND e.held_count <> c.held
+            """, nativeQuery = true)
+    int recountHeldCount(@Param("eventId") Integer eventId);
+
+    /**
+     * Locks the events in id order, so concurrent checkouts of overlapping carts always
+     * queue on the same row first, and reports whether the user could book each of them.
+     */
+    @Query(value = """
+            SELECT e.id AS id,
+                   e.date > :now AS upcoming,
+                   (e.capacity IS NULL OR e.booked_count + e.held_count < e.capacity) AS available,
+                   EXISTS (SELECT 1 FROM bookings b WHERE b.user_id = :userId AND b.event_id = e.id) AS booked
+            FROM events e
+            WHERE e.id IN (:eventIds)
+            ORDER BY e.id
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<EventSeatCheck> lockSeatsForBooking(
+            @Param("userId") Integer userId,
+            @Param("eventIds") Collection<Integer> eventIds,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query("UPDATE Event e SET e.bookedCount = e.bookedCount + 1 WHERE e.id IN :eventIds")
+    int incrementBookedCounts(@Param("eventIds") Collection<Integer> eventIds);
 }
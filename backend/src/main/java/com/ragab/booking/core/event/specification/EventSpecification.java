@@ -1,9 +1,16 @@
 package com.ragab.booking.core.event.specification;
 
+import com.ragab.booking.core.category.model.Category;
 import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.tag.model.Tag;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 
 public class EventSpecification {
 
@@ -11,4 +18,60 @@ public class EventSpecification {
         return (root, query, cb) ->
                 cb.greaterThan(root.get("eventDate"), LocalDateTime.now());
     }
+
+    public static Specification<Event> inCategory(String categoryName) {
+        return (root, query, cb) -> {
+            Join<Event, Category> category = root.join("category");
+            return cb.equal(cb.lower(category.get("name")), categoryName.toLowerCase());
+        };
+    }
+
+    public static Specification<Event> hasAnyTag(Collection<String> tagNames) {
+        return (root, query, cb) -> {
+            Subquery<Integer> tagged = query.subquery(Integer.class);
+            Root<Event> event = tagged.from(Event.class);
+            Join<Event, Tag> tag = event.join("tags");
+            tagged.select(event.get("id"))
+                    .where(cb.lower(tag.get("name")).in(lowerCase(tagNames)));
+            return root.get("id").in(tagged);
+        };
+    }
+
+    public static Specification<Event> hasAllTags(Collection<String> tagNames) {
+        return (root, query, cb) -> {
+            Collection<String> names = lowerCase(tagNames);
+            Subquery<Integer> tagged = query.subquery(Integer.class);
+            Root<Event> event = tagged.from(Event.class);
+            Join<Event, Tag> tag = event.join("tags");
+            tagged.select(event.get("id"))
+                    .where(cb.lower(tag.get("name")).in(names))
+                    .groupBy(event.get("id"))
+                    .having(cb.equal(cb.count(tag), (long) names.size()));
+            return root.get("id").in(tagged);
+        };
+    }
+
+    public static Specification<Event> startsFrom(LocalDateTime from) {
+        return (root, query, cb) ->
+                cb.greaterThanOrEqualTo(root.get("eventDate"), from);
+    }
+
+    public static Specification<Event> startsBefore(LocalDateTime to) {
+        return (root, query, cb) ->
+                cb.lessThan(root.get("eventDate"), to);
+    }
+
+    public static Specification<Event> priceAtLeast(BigDecimal minPrice) {
+        return (root, query, cb) ->
+                cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Event> priceAtMost(BigDecimal maxPrice) {
+        return (root, query, cb) ->
+                cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    private static Collection<String> lowerCase(Collection<String> names) {
+        return names.stream().map(String::toLowerCase).distinct().toList();
+    }
 }
@@ -40,6 +40,8 @@ public class Users extends BaseEntity {
 
     private boolean isAdmin;
     private boolean enabled;
+    @Column(name = "security_version", nullable = false)
+    private int securityVersion;
 
     public String getName() {
         return firstname + " " + lastname;
@@ -54,6 +56,13 @@ public class Users extends BaseEntity {
         }
     }
 
+    /**
+     * Invalidates the access tokens issued so far, e.g. after a role or password change.
+     */
+    public void bumpSecurityVersion() {
+        securityVersion++;
+    }
+
     public int calculateAge() {
         return Period.between(dob, LocalDate.now()).getYears();
     }
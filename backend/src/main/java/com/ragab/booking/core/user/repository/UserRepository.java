@@ -4,6 +4,7 @@ import com.ragab.booking.core.user.model.Users;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
@@ -13,5 +14,8 @@ public interface UserRepository extends JpaRepository<Users, Integer> {
 
     boolean existsByEmail(String email);
 
+    @Query("SELECT u.securityVersion FROM Users u WHERE u.id = ?1 AND u.enabled = true")
+    Optional<Integer> findSecurityVersionOfEnabledUser(Integer id);
+
     Page<Users> findByEmailContainingIgnoreCase(String email, Pageable pageable);
 }
@@ -7,17 +7,25 @@ import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.models.BlobHttpHeaders;
 import com.azure.storage.blob.sas.BlobSasPermission;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ragab.booking.common.exception.custom.FileValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.azure.storage.common.sas.SasProtocol.HTTPS_ONLY;
 
@@ -26,16 +34,39 @@ import static com.azure.storage.common.sas.SasProtocol.HTTPS_ONLY;
 @Slf4j
 public class AzureStorageService {
     private final BlobServiceClient blobServiceClient;
+    private final MeterRegistry meterRegistry;
 
     public static final List<String> ALLOWED_TYPES = List.of(
             "image/jpeg", "image/png", "image/jpg"
     );
 
+    @Value("${azure.storage.sas.validity-minutes}")
+    private long sasValidityMinutes;
+    @Value("${azure.storage.sas.refresh-margin-minutes}")
+    private long sasRefreshMarginMinutes;
+    @Value("${azure.storage.sas.cache-max-size}")
+    private long sasCacheMaxSize;
+
+    private final Map<String, BlobContainerClient> containerClients = new ConcurrentHashMap<>();
+    private Cache<SasKey, String> sasUrls;
+
     @PostConstruct
     public void initialize() {
         if (blobServiceClient == null) {
             throw new IllegalStateException("BlobServiceClient not configured");
         }
+        if (sasRefreshMarginMinutes >= sasValidityMinutes) {
+            throw new IllegalStateException("SAS refresh margin must be shorter than the SAS validity");
+        }
+
+        // every SAS is signed with the same validity, so a fixed time-to-live
+        // retires each URL exactly one margin before its signature expires
+        sasUrls = Caffeine.newBuilder()
+                .maximumSize(sasCacheMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(sasValidityMinutes - sasRefreshMarginMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sasUrls, "azureSasUrls");
     }
 
     public String uploadFile(MultipartFile file, String containerName, String filename,
@@ -43,8 +74,7 @@ public class AzureStorageService {
         validateFile(file, maxSize, allowedTypes);
 
         try {
-            BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-            BlobClient blobClient = containerClient.getBlobClient(filename);
+            BlobClient blobClient = getContainerClient(containerName).getBlobClient(filename);
 
             BlobHttpHeaders headers = new BlobHttpHeaders()
                     .setContentType(file.getContentType());
@@ -59,9 +89,9 @@ public class AzureStorageService {
     }
 
     public void deleteFile(String blobName, String containerName) {
+        sasUrls.invalidate(new SasKey(containerName, blobName));
         try {
-            BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-            BlobClient blobClient = containerClient.getBlobClient(blobName);
+            BlobClient blobClient = getContainerClient(containerName).getBlobClient(blobName);
 
             if (blobClient.exists()) {
                 blobClient.delete();
@@ -76,10 +106,13 @@ public class AzureStorageService {
             return null;
         }
 
-        BlobContainerClient containerClient = blobServiceClient.getBlobContainerClient(containerName);
-        BlobClient blobClient = containerClient.getBlobClient(blobName);
+        return sasUrls.get(new SasKey(containerName, blobName), this::signBlobUrl);
+    }
+
+    private String signBlobUrl(SasKey key) {
+        BlobClient blobClient = getContainerClient(key.containerName()).getBlobClient(key.blobName());
 
-        OffsetDateTime expiryTime = OffsetDateTime.now().plusDays(1);
+        OffsetDateTime expiryTime = OffsetDateTime.now().plusMinutes(sasValidityMinutes);
         BlobSasPermission permission = new BlobSasPermission()
                 .setReadPermission(true);
 
@@ -90,6 +123,10 @@ public class AzureStorageService {
         return blobClient.getBlobUrl() + "?" + sasToken;
     }
 
+    private BlobContainerClient getContainerClient(String containerName) {
+        return containerClients.computeIfAbsent(containerName, blobServiceClient::getBlobContainerClient);
+    }
+
     private void validateFile(MultipartFile file, long maxSize, List<String> allowedTypes) {
         if (file.isEmpty()) {
             throw new FileValidationException("File cannot be empty");
@@ -117,4 +154,7 @@ public class AzureStorageService {
                 ? originalFilename.substring(originalFilename.lastIndexOf("."))
                 : "";
     }
+
+    private record SasKey(String containerName, String blobName) {
+    }
 }
\ No newline at end of file
@@ -6,9 +6,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import static com.ragab.booking.config.CacheConfig.EVENTS;
+import static com.ragab.booking.config.CacheConfig.EVENT_PAGES;
 import static com.ragab.booking.infrastructure.azure.AzureStorageService.ALLOWED_TYPES;
 
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -23,6 +27,10 @@ public class EventImageService {
 
     private static final long MAX_SIZE = 5 * 1024 * 1024; // 5MB limit for event images
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = EVENTS, key = "#eventId"),
+            @CacheEvict(cacheNames = EVENT_PAGES, allEntries = true)
+    })
     public void updateEventImage(Integer eventId, MultipartFile file) {
         Event event = getEventById(eventId);
 
@@ -16,6 +16,7 @@ import org.thymeleaf.spring6.SpringTemplateEngine;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.ragab.booking.infrastructure.email.service.EmailTemplateName.WAITLIST_PROMOTED;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.springframework.mail.javamail.MimeMessageHelper.MULTIPART_MODE_MIXED;
 
@@ -47,6 +48,36 @@ public class EmailService {
             String frontendUrl,
             String activationCode
     ) throws MessagingException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("username", username);
+        properties.put("frontend_url", frontendUrl);
+        properties.put("activation_code", activationCode);
+        send(to, template, properties);
+    }
+
+    /**
+     * Tells a user that they were moved off an event's waitlist into a booking. Sent on the
+     * caller's thread, so the caller sees a failed delivery
+     *
+     * @param to          Email recipient address
+     * @param username    Username to display in the email
+     * @param eventName   Name of the booked event
+     * @param frontendUrl URL of the user's bookings page
+     */
+    public void sendWaitlistPromotion(
+            String to,
+            String username,
+            String eventName,
+            String frontendUrl
+    ) throws MessagingException {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("username", username);
+        properties.put("event_name", eventName);
+        properties.put("frontend_url", frontendUrl);
+        send(to, WAITLIST_PROMOTED, properties);
+    }
+
+    private void send(String to, EmailTemplateName template, Map<String, Object> properties) throws MessagingException {
         try {
 
             String subject = template.getDefaultSubject();
@@ -58,11 +89,6 @@ public class EmailService {
                     UTF_8.name()
             );
 
-            Map<String, Object> properties = new HashMap<>();
-            properties.put("username", username);
-            properties.put("frontend_url", frontendUrl);
-            properties.put("activation_code", activationCode);
-
             Context context = new Context();
             context.setVariables(properties);
 
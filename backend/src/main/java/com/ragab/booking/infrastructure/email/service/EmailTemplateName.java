@@ -7,7 +7,8 @@ import lombok.Getter;
 @AllArgsConstructor
 public enum EmailTemplateName {
     ACTIVATE_ACCOUNT("activate_account", "Account Activation"),
-    RESET_PASSWORD("reset_password", "Password Reset");
+    RESET_PASSWORD("reset_password", "Password Reset"),
+    WAITLIST_PROMOTED("waitlist_promoted", "You got a seat");
 
     private final String templateFileName;
     private final String defaultSubject;
@@ -0,0 +1,9 @@
+CREATE INDEX idx_events_category_id_date_id ON events (category_id, date, id);
+
+CREATE INDEX idx_events_price ON events (price);
+
+CREATE INDEX idx_event_tags_tag_id_event_id ON event_tags (tag_id, event_id);
+
+CREATE INDEX idx_categories_lower_name ON categories (lower(name));
+
+CREATE INDEX idx_tags_lower_name ON tags (lower(name));
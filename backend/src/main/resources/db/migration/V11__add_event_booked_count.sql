@@ -0,0 +1,13 @@
+ALTER TABLE events
+    ADD COLUMN booked_count INTEGER NOT NULL DEFAULT 0
+        CONSTRAINT chk_booked_count_non_negative CHECK (booked_count >= 0);
+
+CREATE INDEX idx_bookings_event_id ON bookings (event_id);
+
+UPDATE events e
+SET booked_count = c.booked
+FROM (SELECT event_id, COUNT(*) AS booked
+      FROM bookings
+      WHERE event_id IS NOT NULL
+      GROUP BY event_id) c
+WHERE e.id = c.event_id;
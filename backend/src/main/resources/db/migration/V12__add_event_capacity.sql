@@ -0,0 +1,27 @@
+ALTER TABLE events
+    ADD COLUMN capacity INTEGER
+        CONSTRAINT chk_capacity_positive CHECK (capacity > 0);
+
+-- duplicate bookings of the same event by the same user would block the unique constraint;
+-- keep the first and move the rest to an audit table instead of losing them
+CREATE TABLE duplicate_bookings_audit AS
+SELECT b.*, CURRENT_TIMESTAMP AS removed_at
+FROM bookings b
+WHERE EXISTS (SELECT 1
+              FROM bookings kept
+              WHERE kept.user_id = b.user_id
+                AND kept.event_id = b.event_id
+                AND kept.id < b.id);
+
+DELETE
+FROM bookings b
+    USING bookings kept
+WHERE b.user_id = kept.user_id
+  AND b.event_id = kept.event_id
+  AND b.id > kept.id;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT uk_bookings_user_event UNIQUE (user_id, event_id);
+
+UPDATE events e
+SET booked_count = (SELECT COUNT(*) FROM bookings b WHERE b.event_id = e.id);
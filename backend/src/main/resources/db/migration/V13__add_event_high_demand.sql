@@ -0,0 +1,2 @@
+ALTER TABLE events
+    ADD COLUMN high_demand BOOLEAN NOT NULL DEFAULT FALSE;
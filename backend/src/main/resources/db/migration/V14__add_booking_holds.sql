@@ -0,0 +1,18 @@
+ALTER TABLE events
+    ADD COLUMN held_count INTEGER NOT NULL DEFAULT 0
+        CONSTRAINT chk_held_count_non_negative CHECK (held_count >= 0);
+
+CREATE TABLE booking_holds
+(
+    id                 BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+    user_id            BIGINT    NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    event_id           BIGINT    NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+    expires_at         TIMESTAMP NOT NULL,
+    created_date       TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    CONSTRAINT uk_booking_holds_user_event UNIQUE (user_id, event_id)
+);
+
+CREATE INDEX idx_booking_holds_expires_at ON booking_holds (expires_at);
+
+CREATE INDEX idx_booking_holds_event_id ON booking_holds (event_id);
@@ -0,0 +1,15 @@
+CREATE SEQUENCE waitlist_position_seq;
+
+CREATE TABLE waitlist_entries
+(
+    id                 BIGINT PRIMARY KEY GENERATED ALWAYS AS IDENTITY,
+    user_id            BIGINT    NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    event_id           BIGINT    NOT NULL REFERENCES events (id) ON DELETE CASCADE,
+    position           BIGINT    NOT NULL DEFAULT nextval('waitlist_position_seq'),
+    created_date       TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    CONSTRAINT uk_waitlist_entries_user_event UNIQUE (user_id, event_id)
+);
+
+-- the head of an event's queue is the first entry of this index
+CREATE UNIQUE INDEX idx_waitlist_entries_event_position ON waitlist_entries (event_id, position);
@@ -0,0 +1,12 @@
+CREATE TABLE idempotency_keys
+(
+    user_id         BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     VARCHAR(255) NOT NULL,
+    -- null while the first request is still running
+    result_id       BIGINT,
+    claimed_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_claimed_at ON idempotency_keys (claimed_at);
@@ -0,0 +1,4 @@
+-- lets the bookings list read its keys and event ids from the index alone
+CREATE INDEX idx_bookings_user_created_date_id_event ON bookings (user_id, created_date, id) INCLUDE (event_id);
+
+DROP INDEX idx_bookings_user_created_date_id;
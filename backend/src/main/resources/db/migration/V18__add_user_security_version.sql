@@ -0,0 +1,2 @@
+-- bumped whenever a user's roles or password change; access tokens carry the version they were issued at
+ALTER TABLE users ADD COLUMN security_version INTEGER NOT NULL DEFAULT 0;
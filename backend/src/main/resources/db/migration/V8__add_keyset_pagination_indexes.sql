@@ -0,0 +1,3 @@
+CREATE INDEX idx_events_date_id ON events (date, id);
+
+CREATE INDEX idx_bookings_user_created_date_id ON bookings (user_id, created_date, id);
@@ -0,0 +1,113 @@
+ALTER TABLE events
+    ADD COLUMN search_vector TSVECTOR;
+
+CREATE FUNCTION event_search_vector(
+    p_event_id BIGINT,
+    p_name TEXT,
+    p_description TEXT,
+    p_venue TEXT,
+    p_category_id BIGINT
+) RETURNS TSVECTOR
+    LANGUAGE sql
+    STABLE
+AS
+$$
+SELECT setweight(to_tsvector('english', coalesce(p_name, '')), 'A')
+           || setweight(to_tsvector('english', coalesce(
+        (SELECT c.name FROM categories c WHERE c.id = p_category_id), '')), 'B')
+           || setweight(to_tsvector('english', coalesce(
+        (SELECT string_agg(t.name, ' ')
+         FROM event_tags et
+                  JOIN tags t ON t.id = et.tag_id
+         WHERE et.event_id = p_event_id), '')), 'B')
+           || setweight(to_tsvector('english', coalesce(p_venue, '')), 'C')
+           || setweight(to_tsvector('english', coalesce(p_description, '')), 'D')
+$$;
+
+CREATE FUNCTION refresh_event_search_vector(p_event_ids BIGINT[]) RETURNS VOID
+    LANGUAGE sql
+AS
+$$
+UPDATE events e
+SET search_vector = event_search_vector(e.id, e.name, e.description, e.venue, e.category_id)
+WHERE e.id = ANY (p_event_ids)
+$$;
+
+-- events: recompute on every change to an indexed column
+CREATE FUNCTION events_search_vector_trigger() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.search_vector := event_search_vector(NEW.id, NEW.name, NEW.description, NEW.venue, NEW.category_id);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_events_search_vector
+    BEFORE INSERT OR UPDATE OF name, description, venue, category_id
+    ON events
+    FOR EACH ROW
+EXECUTE FUNCTION events_search_vector_trigger();
+
+-- event_tags: a tag was attached to or removed from an event
+CREATE FUNCTION event_tags_search_vector_trigger() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM refresh_event_search_vector(ARRAY [OLD.event_id]);
+    ELSE
+        PERFORM refresh_event_search_vector(ARRAY [NEW.event_id]);
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_event_tags_search_vector
+    AFTER INSERT OR DELETE
+    ON event_tags
+    FOR EACH ROW
+EXECUTE FUNCTION event_tags_search_vector_trigger();
+
+-- categories and tags: a rename changes the text of every event that uses them
+CREATE FUNCTION categories_search_vector_trigger() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM refresh_event_search_vector(ARRAY(SELECT e.id FROM events e WHERE e.category_id = NEW.id));
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_categories_search_vector
+    AFTER UPDATE OF name
+    ON categories
+    FOR EACH ROW
+EXECUTE FUNCTION categories_search_vector_trigger();
+
+CREATE FUNCTION tags_search_vector_trigger() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM refresh_event_search_vector(ARRAY(SELECT et.event_id FROM event_tags et WHERE et.tag_id = NEW.id));
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_tags_search_vector
+    AFTER UPDATE OF name
+    ON tags
+    FOR EACH ROW
+EXECUTE FUNCTION tags_search_vector_trigger();
+
+UPDATE events e
+SET search_vector = event_search_vector(e.id, e.name, e.description, e.venue, e.category_id);
+
+ALTER TABLE events
+    ALTER COLUMN search_vector SET NOT NULL;
+
+CREATE INDEX idx_events_search_vector ON events USING GIN (search_vector);
@@ -0,0 +1,261 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.api.booking.dto.BatchBookingResponse;
+import com.ragab.booking.api.booking.dto.BookedResponse;
+import com.ragab.booking.common.exception.custom.UnAuthorizedException;
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.EventPassedException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.common.response.PageResponse;
+import com.ragab.booking.config.CacheConfig;
+import com.ragab.booking.core.booking.mapper.BookingMapper;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.user.model.Users;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.ragab.booking.api.booking.dto.BatchBookingResponse.Status.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@Import({BookingService.class, WaitlistService.class, BookingMapper.class, CacheConfig.class})
+class BookedCountTest extends PostgresRepositoryTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void bookingAndCancellingMaintainCounterAndReconcilerFixesDrift() {
+        Event event = entityManager.persist(event(LocalDateTime.now().plusDays(1), null));
+        Users alice = entityManager.persist(user("alice@example.com"));
+        Users bob = entityManager.persist(user("bob@example.com"));
+        entityManager.flush();
+
+        Integer aliceBooking = bookingService.bookEvent(alice.getId(), event.getId());
+        bookingService.bookEvent(bob.getId(), event.getId());
+        assertThat(bookedCount(event)).isEqualTo(2);
+
+        bookingService.cancelBooking(alice.getId(), aliceBooking);
+        assertThat(bookedCount(event)).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE events SET booked_count = 7 WHERE id = ?", event.getId());
+        bookingService.reconcileBookedCounts();
+        assertThat(bookedCount(event)).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional(propagation = NOT_SUPPORTED)
+    void reconcilerKeepsBookingsCommittedWhileItRuns() throws Exception {
+        Integer eventId = jdbcTemplate.queryForObject("""
+                INSERT INTO events (name, date, venue, price, booked_count, created_by)
+                VALUES ('Concert', now() + INTERVAL '1 day', 'Main hall', 10, 5, 1)
+                RETURNING id
+                """, Integer.class);
+        Integer userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                VALUES ('alice@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE)
+                RETURNING id
+                """, Integer.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch booked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // a booking that holds the event row while the reconciler starts
+            Future<?> booking = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bookingService.bookEvent(userId, eventId);
+                booked.countDown();
+                awaitQuietly(commit);
+            }));
+            assertThat(booked.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> reconcile = executor.submit(() -> bookingService.reconcileBookedCounts());
+            waitUntil(() -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class) > 0);
+            commit.countDown();
+            booking.get(5, TimeUnit.SECONDS);
+            reconcile.get(5, TimeUnit.SECONDS);
+
+            assertThat(jdbcTemplate.queryForObject("SELECT booked_count FROM events WHERE id = ?", Integer.class, eventId))
+                    .isEqualTo(1);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+            jdbcTemplate.execute("TRUNCATE bookings, events, users RESTART IDENTITY CASCADE");
+        }
+    }
+
+    @Test
+    void bookingIsOneStatementAndRejectionsKeepTheirMeaning() {
+        Event upcoming = entityManager.persist(event(LocalDateTime.now().plusDays(1), 1));
+        Event past = entityManager.persist(event(LocalDateTime.now().minusDays(1), null));
+        Users alice = entityManager.persist(user("alice@example.com"));
+        Users bob = entityManager.persist(user("bob@example.com"));
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        bookingService.bookEvent(alice.getId(), upcoming.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> bookingService.bookEvent(alice.getId(), upcoming.getId()))
+                .isInstanceOf(AlreadyBookedException.class);
+        assertThatThrownBy(() -> bookingService.bookEvent(bob.getId(), upcoming.getId()))
+                .isInstanceOf(SoldOutException.class);
+        assertThatThrownBy(() -> bookingService.bookEvent(bob.getId(), past.getId()))
+                .isInstanceOf(EventPassedException.class);
+        assertThat(bookedCount(upcoming)).isEqualTo(1);
+    }
+
+    @Test
+    void bookingsListIsProjectedInSqlAndSkipsDeletedEvents() {
+        Users alice = entityManager.persist(user("alice@example.com"));
+        Event first = entityManager.persist(event(LocalDateTime.now().plusDays(1), null));
+        Event second = entityManager.persist(event(LocalDateTime.now().plusDays(2), null));
+        Event third = entityManager.persist(event(LocalDateTime.now().plusDays(3), null));
+        entityManager.flush();
+        bookingService.bookEvent(alice.getId(), first.getId());
+        bookingService.bookEvent(alice.getId(), second.getId());
+        bookingService.bookEvent(alice.getId(), third.getId());
+        // what ON DELETE SET NULL leaves behind when an event is deleted
+        jdbcTemplate.update("UPDATE bookings SET event_id = NULL WHERE event_id = ?", second.getId());
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        PageResponse<BookedResponse> page = bookingService.getBookings(alice.getId(), 0, 2);
+
+        assertThat(page.content()).extracting(BookedResponse::eventId).containsExactly(third.getId(), first.getId());
+        assertThat(page.totalElements()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        // page select and count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cartCheckoutIsAllOrNothingOnlyWhenAsked() {
+        Event open = entityManager.persist(event(LocalDateTime.now().plusDays(1), 5));
+        Event full = entityManager.persist(event(LocalDateTime.now().plusDays(1), 1));
+        Users alice = entityManager.persist(user("alice@example.com"));
+        Users bob = entityManager.persist(user("bob@example.com"));
+        entityManager.flush();
+        bookingService.bookEvent(bob.getId(), full.getId());
+        List<Integer> cart = List.of(full.getId(), open.getId(), -1);
+
+        BatchBookingResponse none = bookingService.bookEvents(alice.getId(), cart, true);
+        assertThat(none.booked()).isFalse();
+        assertThat(none.items()).extracting(BatchBookingResponse.Item::status)
+                .containsExactly(SOLD_OUT, SKIPPED, NOT_FOUND);
+        assertThat(bookedCount(open)).isZero();
+
+        BatchBookingResponse some = bookingService.bookEvents(alice.getId(), cart, false);
+        assertThat(some.booked()).isTrue();
+        assertThat(some.items()).extracting(BatchBookingResponse.Item::status)
+                .containsExactly(SOLD_OUT, BOOKED, NOT_FOUND);
+        assertThat(some.items().get(1).bookingId()).isNotNull();
+        assertThat(bookedCount(open)).isEqualTo(1);
+    }
+
+    @Test
+    void cancellationIsConditionalAndEventBookingsCancelInBulk() {
+        Event upcoming = entityManager.persist(event(LocalDateTime.now().plusDays(1), null));
+        Event past = entityManager.persist(event(LocalDateTime.now().plusDays(1), null));
+        Users alice = entityManager.persist(user("alice@example.com"));
+        Users bob = entityManager.persist(user("bob@example.com"));
+        entityManager.flush();
+        Integer aliceBooking = bookingService.bookEvent(alice.getId(), upcoming.getId());
+        bookingService.bookEvent(bob.getId(), upcoming.getId());
+        Integer pastBooking = bookingService.bookEvent(alice.getId(), past.getId());
+        jdbcTemplate.update("UPDATE events SET date = ? WHERE id = ?", LocalDateTime.now().minusDays(1), past.getId());
+
+        assertThatThrownBy(() -> bookingService.cancelBooking(bob.getId(), aliceBooking))
+                .isInstanceOf(UnAuthorizedException.class);
+        assertThatThrownBy(() -> bookingService.cancelBooking(alice.getId(), pastBooking))
+                .isInstanceOf(EventPassedException.class);
+        assertThatThrownBy(() -> bookingService.cancelBooking(alice.getId(), -1))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(bookedCount(upcoming)).isEqualTo(2);
+
+        assertThat(bookingService.cancelAllBookings(upcoming.getId())).isEqualTo(2);
+        assertThat(bookedCount(upcoming)).isZero();
+        assertThat(bookedCount(past)).isEqualTo(1);
+        assertThatThrownBy(() -> bookingService.cancelBooking(alice.getId(), aliceBooking))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private Integer bookedCount(Event event) {
+        return jdbcTemplate.queryForObject("SELECT booked_count FROM events WHERE id = ?", Integer.class, event.getId());
+    }
+
+    private static Event event(LocalDateTime date, Integer capacity) {
+        return Event.builder()
+                .name("Concert")
+                .eventDate(date)
+                .price(BigDecimal.TEN)
+                .venue("Main hall")
+                .capacity(capacity)
+                .tags(new HashSet<>())
+                .bookings(new HashSet<>())
+                .build();
+    }
+
+    private static Users user(String email) {
+        return Users.builder()
+                .firstname("Test")
+                .lastname("User")
+                .email(email)
+                .password("secret")
+                .dob(LocalDate.of(1990, 1, 1))
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,227 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.config.CacheConfig;
+import com.ragab.booking.core.booking.mapper.BookingMapper;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+/**
+ * Books one hot event from many threads at once. Every booking runs in its own committed
+ * transaction, so the test itself must stay outside one.
+ */
+@Import({BookingService.class, WaitlistService.class, FlashSaleEngine.class, BookingMapper.class, CacheConfig.class})
+@Transactional(propagation = NOT_SUPPORTED)
+class BookingConcurrencyTest extends PostgresRepositoryTest {
+    private static final int CAPACITY = 50;
+    private static final int USERS = 400;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private FlashSaleEngine flashSaleEngine;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE bookings, events, users RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void concurrentBookingsNeverOversell() throws Exception {
+        Integer eventId = insertEvent(CAPACITY);
+        List<Integer> userIds = insertUsers(USERS);
+
+        List<String> outcomes = runConcurrently(userIds.stream()
+                .<Callable<String>>map(userId -> () -> book(userId, eventId))
+                .toList());
+
+        assertThat(outcomes).filteredOn("booked"::equals).hasSize(CAPACITY);
+        assertThat(outcomes).filteredOn("sold out"::equals).hasSize(USERS - CAPACITY);
+        assertThat(countBookings(eventId)).isEqualTo(CAPACITY);
+        assertThat(bookedCount(eventId)).isEqualTo(CAPACITY);
+    }
+
+    @Test
+    void concurrentDuplicatesBookOnce() throws Exception {
+        Integer eventId = insertEvent(CAPACITY);
+        Integer userId = insertUsers(1).get(0);
+
+        List<String> outcomes = runConcurrently(IntStream.range(0, THREADS)
+                .<Callable<String>>mapToObj(i -> () -> book(userId, eventId))
+                .toList());
+
+        assertThat(outcomes).filteredOn("booked"::equals).hasSize(1);
+        assertThat(outcomes).filteredOn("already booked"::equals).hasSize(THREADS - 1);
+        assertThat(countBookings(eventId)).isEqualTo(1);
+        assertThat(bookedCount(eventId)).isEqualTo(1);
+    }
+
+    @Test
+    void flashSaleQueueNeverOversells() throws Exception {
+        Integer eventId = insertEvent(CAPACITY);
+        List<Integer> userIds = insertUsers(USERS);
+
+        List<String> outcomes = runConcurrently(userIds.stream()
+                .<Callable<String>>map(userId -> () -> {
+                    CompletableFuture<Integer> result = flashSaleEngine.submit(userId, eventId).result();
+                    return book(() -> result.join());
+                })
+                .toList());
+
+        assertThat(outcomes).filteredOn("booked"::equals).hasSize(CAPACITY);
+        assertThat(outcomes).filteredOn("sold out"::equals).hasSize(USERS - CAPACITY);
+        assertThat(countBookings(eventId)).isEqualTo(CAPACITY);
+        assertThat(bookedCount(eventId)).isEqualTo(CAPACITY);
+        // drained lanes are dropped rather than kept for every event that was ever hot
+        waitUntil(() -> ((Map<?, ?>) ReflectionTestUtils.getField(flashSaleEngine, "lanes")).isEmpty());
+    }
+
+    @Test
+    void overlappingCartsNeitherDeadlockNorOversell() throws Exception {
+        List<Integer> eventIds = List.of(insertEvent(CAPACITY), insertEvent(CAPACITY), insertEvent(CAPACITY));
+        List<Integer> reversed = List.of(eventIds.get(2), eventIds.get(1), eventIds.get(0));
+        List<Integer> userIds = insertUsers(USERS);
+
+        List<String> outcomes = runConcurrently(userIds.stream()
+                .<Callable<String>>map(userId -> () -> {
+                    // half of the carts list the events in the opposite order
+                    List<Integer> cart = userId % 2 == 0 ? eventIds : reversed;
+                    return bookingService.bookEvents(userId, cart, false).booked() ? "booked" : "sold out";
+                })
+                .toList());
+
+        assertThat(outcomes).filteredOn("booked"::equals).hasSize(CAPACITY);
+        for (Integer eventId : eventIds) {
+            assertThat(countBookings(eventId)).isEqualTo(CAPACITY);
+            assertThat(bookedCount(eventId)).isEqualTo(CAPACITY);
+        }
+    }
+
+    private String book(Integer userId, Integer eventId) {
+        return book(() -> bookingService.bookEvent(userId, eventId));
+    }
+
+    private String book(Supplier<Integer> booking) {
+        try {
+            booking.get();
+            return "booked";
+        } catch (SoldOutException ex) {
+            return "sold out";
+        } catch (AlreadyBookedException ex) {
+            return "already booked";
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                return book(() -> {
+                    throw cause;
+                });
+            }
+            throw ex;
+        }
+    }
+
+    private List<String> runConcurrently(List<Callable<String>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (Callable<String> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<String> outcomes = new ArrayList<>();
+            for (Future<String> future : futures) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void seatChangesEvictTheEventButKeepCachedListingPages() {
+        Integer eventId = insertEvent(CAPACITY);
+        Integer userId = insertUsers(1).get(0);
+        Cache events = cacheManager.getCache(CacheConfig.EVENTS);
+        Cache pages = cacheManager.getCache(CacheConfig.EVENT_PAGES);
+
+        events.put(eventId, "stale");
+        pages.put("page", "cached");
+        Integer bookingId = bookingService.bookEvent(userId, eventId);
+        assertThat(events.get(eventId)).isNull();
+        assertThat(pages.get("page")).isNotNull();
+
+        events.put(eventId, "stale");
+        bookingService.cancelBooking(userId, bookingId);
+        assertThat(events.get(eventId)).isNull();
+        assertThat(pages.get("page")).isNotNull();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private Integer insertEvent(int capacity) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO events (name, date, venue, price, capacity, created_by)
+                VALUES ('Hot event', now() + INTERVAL '1 day', 'Arena', 10, ?, 1)
+                RETURNING id
+                """, Integer.class, capacity);
+    }
+
+    private List<Integer> insertUsers(int count) {
+        return jdbcTemplate.queryForList("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                SELECT 'user' || g || '@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Integer.class, count);
+    }
+
+    private Integer countBookings(Integer eventId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings WHERE event_id = ?", Integer.class, eventId);
+    }
+
+    private Integer bookedCount(Integer eventId) {
+        return jdbcTemplate.queryForObject("SELECT booked_count FROM events WHERE id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,172 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.api.booking.dto.HoldResponse;
+import com.ragab.booking.common.exception.custom.booking.AlreadyBookedException;
+import com.ragab.booking.common.exception.custom.booking.HoldExpiredException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.config.CacheConfig;
+import com.ragab.booking.core.booking.mapper.BookingMapper;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@Import({SeatHoldService.class, BookingService.class, WaitlistService.class, BookingMapper.class, CacheConfig.class})
+@Transactional(propagation = NOT_SUPPORTED)
+class SeatHoldTest extends PostgresRepositoryTest {
+    @Autowired
+    private SeatHoldService seatHoldService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE booking_holds, bookings, events, users RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void heldSeatIsNotForSaleUntilConfirmed() {
+        Integer eventId = insertEvent(1);
+        List<Integer> userIds = insertUsers(2);
+
+        HoldResponse hold = seatHoldService.placeHold(userIds.get(0), eventId);
+        assertThat(counts(eventId)).containsExactly(0, 1);
+        assertThatThrownBy(() -> bookingService.bookEvent(userIds.get(1), eventId))
+                .isInstanceOf(SoldOutException.class);
+
+        seatHoldService.confirmHold(userIds.get(0), hold.holdId());
+        assertThat(counts(eventId)).containsExactly(1, 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_holds", Integer.class)).isZero();
+    }
+
+    @Test
+    void confirmingAfterBookingDirectlyStillReleasesTheHold() {
+        Integer eventId = insertEvent(2);
+        Integer userId = insertUsers(1).get(0);
+
+        HoldResponse hold = seatHoldService.placeHold(userId, eventId);
+        bookingService.bookEvent(userId, eventId);
+        assertThat(counts(eventId)).containsExactly(1, 1);
+
+        assertThatThrownBy(() -> seatHoldService.confirmHold(userId, hold.holdId()))
+                .isInstanceOf(AlreadyBookedException.class);
+        assertThat(counts(eventId)).containsExactly(1, 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM booking_holds", Integer.class)).isZero();
+    }
+
+    @Test
+    void expiredHoldGivesTheSeatBack() {
+        Integer eventId = insertEvent(1);
+        Integer userId = insertUsers(1).get(0);
+
+        HoldResponse hold = seatHoldService.placeHold(userId, eventId);
+        jdbcTemplate.update("UPDATE booking_holds SET expires_at = now() - INTERVAL '1 second'");
+        seatHoldService.sweepExpiredHolds();
+
+        assertThat(counts(eventId)).containsExactly(0, 0);
+        assertThatThrownBy(() -> seatHoldService.confirmHold(userId, hold.holdId()))
+                .isInstanceOf(EntityNotFoundException.class);
+    }
+
+    @Test
+    void overdueHoldCannotBeConfirmed() {
+        Integer eventId = insertEvent(1);
+        Integer userId = insertUsers(1).get(0);
+
+        HoldResponse hold = seatHoldService.placeHold(userId, eventId);
+        jdbcTemplate.update("UPDATE booking_holds SET expires_at = now() - INTERVAL '1 second'");
+
+        assertThatThrownBy(() -> seatHoldService.confirmHold(userId, hold.holdId()))
+                .isInstanceOf(HoldExpiredException.class);
+        assertThat(counts(eventId)).containsExactly(0, 1);
+    }
+
+    @Test
+    void reconcilerKeepsHoldsPlacedWhileItRuns() throws Exception {
+        Integer eventId = insertEvent(5);
+        Integer userId = insertUsers(1).get(0);
+        jdbcTemplate.update("UPDATE events SET held_count = 3 WHERE id = ?", eventId);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // a hold that keeps the event row locked while the reconciler starts
+            Future<?> hold = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                seatHoldService.placeHold(userId, eventId);
+                held.countDown();
+                awaitQuietly(commit);
+            }));
+            assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> reconcile = executor.submit(() -> seatHoldService.reconcileHeldCounts());
+            waitUntil(() -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class) > 0);
+            commit.countDown();
+            hold.get(5, TimeUnit.SECONDS);
+            reconcile.get(5, TimeUnit.SECONDS);
+
+            assertThat(counts(eventId)).containsExactly(0, 1);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private Integer insertEvent(int capacity) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO events (name, date, venue, price, capacity, created_by)
+                VALUES ('Hot event', now() + INTERVAL '1 day', 'Arena', 10, ?, 1)
+                RETURNING id
+                """, Integer.class, capacity);
+    }
+
+    private List<Integer> insertUsers(int count) {
+        return jdbcTemplate.queryForList("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                SELECT 'user' || g || '@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Integer.class, count);
+    }
+
+    private List<Integer> counts(Integer eventId) {
+        return jdbcTemplate.queryForObject("SELECT booked_count, held_count FROM events WHERE id = ?",
+                (rs, rowNum) -> List.of(rs.getInt("booked_count"), rs.getInt("held_count")), eventId);
+    }
+}
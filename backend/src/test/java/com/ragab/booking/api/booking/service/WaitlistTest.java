@@ -0,0 +1,125 @@
+package com.ragab.booking.api.booking.service;
+
+import com.ragab.booking.config.CacheConfig;
+import com.ragab.booking.core.booking.mapper.BookingMapper;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@Import({BookingService.class, WaitlistService.class, BookingMapper.class, CacheConfig.class})
+@RecordApplicationEvents
+@Transactional(propagation = NOT_SUPPORTED)
+class WaitlistTest extends PostgresRepositoryTest {
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private WaitlistService waitlistService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEvents events;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE waitlist_entries, bookings, events, users RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void cancellationBooksTheFirstWaiterInLine() {
+        Integer eventId = insertEvent(1);
+        List<Integer> userIds = insertUsers(4);
+        Integer bookingId = bookingService.bookEvent(userIds.get(0), eventId);
+
+        assertThat(waitlistService.joinWaitlist(userIds.get(1), eventId).ahead()).isZero();
+        assertThat(waitlistService.joinWaitlist(userIds.get(2), eventId).ahead()).isEqualTo(1);
+        waitlistService.joinWaitlist(userIds.get(3), eventId);
+        waitlistService.leaveWaitlist(userIds.get(1), eventId);
+
+        bookingService.cancelBooking(userIds.get(0), bookingId);
+
+        assertThat(bookedUsers(eventId)).containsExactly(userIds.get(2));
+        assertThat(jdbcTemplate.queryForObject("SELECT booked_count FROM events WHERE id = ?", Integer.class, eventId))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM waitlist_entries", Integer.class))
+                .containsExactly(userIds.get(3));
+        assertThat(events.stream(WaitlistService.Promoted.class))
+                .singleElement()
+                .satisfies(promoted -> assertThat(promoted.email()).isEqualTo("user3@example.com"));
+    }
+
+    @Test
+    void waitersWhoBookedMeanwhileAreDroppedFromTheLine() {
+        Integer eventId = insertEvent(1);
+        List<Integer> userIds = insertUsers(3);
+        Integer bookingId = bookingService.bookEvent(userIds.get(0), eventId);
+        waitlistService.joinWaitlist(userIds.get(1), eventId);
+        waitlistService.joinWaitlist(userIds.get(2), eventId);
+        // booked through another path while still in line
+        jdbcTemplate.update("INSERT INTO bookings (user_id, event_id, created_by) VALUES (?, ?, ?)",
+                userIds.get(1), eventId, userIds.get(1));
+
+        bookingService.cancelBooking(userIds.get(0), bookingId);
+
+        assertThat(bookedUsers(eventId)).containsExactlyInAnyOrder(userIds.get(1), userIds.get(2));
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM waitlist_entries", Integer.class)).isEmpty();
+    }
+
+    @Test
+    void nothingIsDroppedWhenNobodyIsPromoted() {
+        Integer eventId = insertEvent(1);
+        List<Integer> userIds = insertUsers(2);
+        Integer bookingId = bookingService.bookEvent(userIds.get(0), eventId);
+        waitlistService.joinWaitlist(userIds.get(1), eventId);
+        jdbcTemplate.update("INSERT INTO bookings (user_id, event_id, created_by) VALUES (?, ?, ?)",
+                userIds.get(1), eventId, userIds.get(1));
+
+        bookingService.cancelBooking(userIds.get(0), bookingId);
+
+        assertThat(bookedUsers(eventId)).containsExactly(userIds.get(1));
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM waitlist_entries", Integer.class))
+                .containsExactly(userIds.get(1));
+        assertThat(events.stream(WaitlistService.Promoted.class)).isEmpty();
+    }
+
+    @Test
+    void onlyFullEventsHaveAWaitlist() {
+        Integer eventId = insertEvent(2);
+        Integer userId = insertUsers(1).get(0);
+
+        assertThatThrownBy(() -> waitlistService.joinWaitlist(userId, eventId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Integer insertEvent(int capacity) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO events (name, date, venue, price, capacity, created_by)
+                VALUES ('Hot event', now() + INTERVAL '1 day', 'Arena', 10, ?, 1)
+                RETURNING id
+                """, Integer.class, capacity);
+    }
+
+    private List<Integer> insertUsers(int count) {
+        return jdbcTemplate.queryForList("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                SELECT 'user' || g || '@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE
+                FROM generate_series(1, ?) g
+                RETURNING id
+                """, Integer.class, count);
+    }
+
+    private List<Integer> bookedUsers(Integer eventId) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM bookings WHERE event_id = ?", Integer.class, eventId);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ragab.booking.api.event.service;
+
+import com.ragab.booking.api.booking.service.BookingService;
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
+import com.ragab.booking.api.booking.service.WaitlistService;
+import com.ragab.booking.api.event.dto.EventRequest;
+import com.ragab.booking.config.CacheConfig;
+import com.ragab.booking.core.booking.mapper.BookingMapper;
+import com.ragab.booking.core.event.mapper.EventMapper;
+import com.ragab.booking.infrastructure.azure.EventImageService;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@Import({AdminEventService.class, EventMapper.class, BookingService.class, WaitlistService.class,
+        BookingMapper.class, CacheConfig.class})
+@Transactional(propagation = NOT_SUPPORTED)
+class AdminEventServiceTest extends PostgresRepositoryTest {
+    @Autowired
+    private AdminEventService adminEventService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @MockitoBean
+    private EventImageService eventImageService;
+    @MockitoBean
+    private EventFacetIndex eventFacetIndex;
+    @MockitoBean
+    private FlashSaleEngine flashSaleEngine;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE bookings, events, categories, users RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void capacityIsCheckedAgainstSeatsTakenWhileTheUpdateWaits() throws Exception {
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('Music')");
+        Integer eventId = jdbcTemplate.queryForObject("""
+                INSERT INTO events (name, date, venue, price, capacity, booked_count, created_by)
+                VALUES ('Concert', now() + INTERVAL '1 day', 'Main hall', 10, 3, 1, 1)
+                RETURNING id
+                """, Integer.class);
+        Integer userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                VALUES ('alice@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE)
+                RETURNING id
+                """, Integer.class);
+        EventRequest shrink = new EventRequest("Concert", null, LocalDateTime.now().plusDays(1),
+                BigDecimal.TEN, "Main hall", "Music", 1, false);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch booked = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        try {
+            // a booking that holds the event row while the capacity is lowered
+            Future<?> booking = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                bookingService.bookEvent(userId, eventId);
+                booked.countDown();
+                awaitQuietly(commit);
+            }));
+            assertThat(booked.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<?> update = executor.submit(() -> adminEventService.updateEvent(eventId, shrink));
+            waitUntil(() -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class) > 0);
+            commit.countDown();
+            booking.get(5, TimeUnit.SECONDS);
+
+            assertThatThrownBy(() -> update.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+            assertThat(jdbcTemplate.queryForObject("SELECT capacity FROM events WHERE id = ?", Integer.class, eventId))
+                    .isEqualTo(3);
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
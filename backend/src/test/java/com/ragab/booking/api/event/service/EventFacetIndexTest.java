@@ -0,0 +1,91 @@
+package com.ragab.booking.api.event.service;
+
+import com.ragab.booking.api.event.dto.EventFacetsResponse;
+import com.ragab.booking.api.event.dto.EventFilter;
+import com.ragab.booking.core.category.model.Category;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.event.model.EventFacetRow;
+import com.ragab.booking.core.event.model.EventTag;
+import com.ragab.booking.core.event.repository.EventRepository;
+import com.ragab.booking.core.tag.model.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.ragab.booking.api.event.dto.EventFilter.TagMatch.ALL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventFacetIndexTest {
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final EventFacetIndex index = new EventFacetIndex(eventRepository);
+
+    @Test
+    void writesAdjustCountsIncrementally() {
+        index.index(event(1, "Music", 10, "jazz", "live"));
+        index.index(event(2, "Music", 20, "jazz"));
+        index.index(event(3, "Sports", 30, "live"));
+
+        EventFacetsResponse facets = index.facets(EventFilter.NONE);
+        assertThat(facets.categories()).containsExactly(Map.entry("Music", 2), Map.entry("Sports", 1));
+        assertThat(facets.tags()).containsExactly(Map.entry("jazz", 2), Map.entry("live", 2));
+
+        index.index(event(2, "Sports", 20));
+        index.remove(3);
+
+        facets = index.facets(EventFilter.NONE);
+        assertThat(facets.categories()).containsExactly(Map.entry("Music", 1), Map.entry("Sports", 1));
+        assertThat(facets.tags()).containsExactly(Map.entry("jazz", 1), Map.entry("live", 1));
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        index.index(event(1, "Music", 10, "jazz", "live"));
+        index.index(event(2, "Music", 20, "jazz"));
+        index.index(event(3, "Sports", 30, "live"));
+
+        EventFacetsResponse facets = index.facets(new EventFilter(
+                "music", Set.of("JAZZ", "live"), ALL, null, null, null, BigDecimal.valueOf(25), false));
+
+        assertThat(facets.categories()).containsExactly(Map.entry("Music", 1));
+        assertThat(facets.tags()).containsExactly(Map.entry("jazz", 2), Map.entry("live", 1));
+    }
+
+    @Test
+    void reconcileReplacesIndexWithDatabaseState() {
+        index.index(event(1, "Music", 10, "jazz"));
+        LocalDateTime date = LocalDateTime.now().plusDays(1);
+        when(eventRepository.findUpcomingFacetRows(any())).thenReturn(List.of(
+                new EventFacetRow(2, "Sports", date, BigDecimal.TEN),
+                new EventFacetRow(3, null, date, BigDecimal.ONE)));
+        when(eventRepository.findUpcomingEventTags(any())).thenReturn(List.of(new EventTag(3, "live")));
+
+        index.reconcile();
+
+        EventFacetsResponse facets = index.facets(EventFilter.NONE);
+        assertThat(facets.categories()).containsExactly(Map.entry("Sports", 1));
+        assertThat(facets.tags()).containsExactly(Map.entry("live", 1));
+    }
+
+    private static Event event(int id, String category, int price, String... tags) {
+        Event event = Event.builder()
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .price(BigDecimal.valueOf(price))
+                .category(new Category(category))
+                .tags(Arrays.stream(tags)
+                        .map(name -> Tag.builder().name(name).build())
+                        .collect(Collectors.toCollection(HashSet::new)))
+                .build();
+        event.setId(id);
+        return event;
+    }
+}
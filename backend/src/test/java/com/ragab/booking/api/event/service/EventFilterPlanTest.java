@@ -0,0 +1,168 @@
+package com.ragab.booking.api.event.service;
+
+import com.ragab.booking.api.event.dto.EventFilter;
+import com.ragab.booking.api.event.dto.EventFilter.TagMatch;
+import com.ragab.booking.core.event.mapper.EventMapper;
+import com.ragab.booking.infrastructure.azure.EventImageService;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import com.ragab.booking.support.RecordingStatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that every filter combination of the event listing is planned on the filter
+ * indexes. The catalogue is seeded large enough for the planner to prefer an index
+ * where one fits, so a missing or unusable index shows up as a sequential scan over
+ * events or event_tags, or as the index name dropping out of the plan.
+ */
+@Import({EventService.class, EventMapper.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ragab.booking.support.RecordingStatementInspector",
+        // EXPLAIN (GENERIC_PLAN) needs the $n placeholders to reach the server unbound
+        "spring.datasource.hikari.data-source-properties.preferQueryMode=simple"
+})
+class EventFilterPlanTest extends PostgresRepositoryTest {
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @MockitoBean
+    private EventImageService eventImageService;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("""
+                INSERT INTO categories (name)
+                SELECT CASE WHEN g = 1 THEN 'Music' ELSE 'Category ' || g END
+                FROM generate_series(1, 40) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO tags (name, created_by)
+                SELECT CASE g WHEN 1 THEN 'jazz' WHEN 2 THEN 'live' ELSE 'tag ' || g END, 1
+                FROM generate_series(1, 400) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO events (name, date, venue, price, category_id, created_by)
+                SELECT 'Event ' || g,
+                       now() + (g % 730 - 365) * INTERVAL '1 day' + g * INTERVAL '1 second',
+                       'Main hall', g % 1000, (SELECT MIN(id) FROM categories) + g % 40, 1
+                FROM generate_series(1, 20000) g
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO event_tags (event_id, tag_id)
+                SELECT e.id, t.id
+                FROM events e
+                         JOIN tags t ON t.id - (SELECT MIN(id) FROM tags) IN (e.id % 400, (e.id * 7 + 1) % 400)
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void everyFilterCombinationUsesTheFilterIndexes() {
+        for (EventFilter filter : filterCombinations()) {
+            String plans = explainListing(filter);
+
+            if (filter.category() != null || filter.tags() != null || filter.minPrice() != null
+                    || filter.from() != null) {
+                assertThat(plans).as("plans for %s", filter)
+                        .doesNotContainPattern("Seq Scan on (events|event_tags)\\b");
+            }
+            assertThat(plans).as("plans for %s", filter).containsAnyOf(expectedIndexes(filter));
+        }
+    }
+
+    /**
+     * The indexes the planner should reach for: the one behind the only narrowing
+     * filter, or any of them once several compete, since the planner then picks
+     * whichever is most selective.
+     */
+    private static String[] expectedIndexes(EventFilter filter) {
+        boolean category = filter.category() != null;
+        boolean tags = filter.tags() != null;
+        boolean price = filter.minPrice() != null;
+        if (category && !tags && !price) {
+            return new String[]{"idx_events_category_id_date_id"};
+        }
+        if (tags && !category && !price) {
+            return new String[]{"idx_event_tags_tag_id_event_id"};
+        }
+        if (price && !category && !tags) {
+            return new String[]{"idx_events_price"};
+        }
+        if (!category && !tags && !price) {
+            return new String[]{"idx_events_date_id"};
+        }
+        return new String[]{"idx_events_category_id_date_id", "idx_event_tags_tag_id_event_id", "idx_events_price"};
+    }
+
+    private String explainListing(EventFilter filter) {
+        RecordingStatementInspector.clear();
+        eventService.getEvents(filter, 1, 5);
+
+        List<String> statements = RecordingStatementInspector.statements().stream()
+                .filter(sql -> sql.contains("from events"))
+                .toList();
+        assertThat(statements).isNotEmpty();
+
+        StringBuilder plans = new StringBuilder();
+        for (String sql : statements) {
+            plans.append(String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN (GENERIC_PLAN) " + numberParameters(sql), String.class))).append('\n');
+        }
+        return plans.toString();
+    }
+
+    static List<EventFilter> filterCombinations() {
+        List<EventFilter> filters = new ArrayList<>();
+        for (String category : new String[]{null, "music"}) {
+            for (TagMatch tagMatch : new TagMatch[]{null, TagMatch.ANY, TagMatch.ALL}) {
+                for (boolean dateRange : new boolean[]{false, true}) {
+                    for (boolean priceRange : new boolean[]{false, true}) {
+                        for (boolean upcoming : new boolean[]{false, true}) {
+                            filters.add(new EventFilter(
+                                    category,
+                                    tagMatch == null ? null : Set.of("jazz", "live"),
+                                    tagMatch,
+                                    dateRange ? LocalDateTime.now() : null,
+                                    dateRange ? LocalDateTime.now().plusDays(7) : null,
+                                    priceRange ? BigDecimal.valueOf(20) : null,
+                                    priceRange ? BigDecimal.valueOf(150) : null,
+                                    upcoming
+                            ));
+                        }
+                    }
+                }
+            }
+        }
+        return filters;
+    }
+
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ragab.booking.api.event.service;
+
+import com.ragab.booking.api.event.dto.EventFilter;
+import com.ragab.booking.api.event.dto.EventResponse;
+import com.ragab.booking.api.event.dto.EventValidators;
+import com.ragab.booking.common.response.PageResponse;
+import com.ragab.booking.core.category.model.Category;
+import com.ragab.booking.core.event.mapper.EventMapper;
+import com.ragab.booking.core.event.model.Event;
+import com.ragab.booking.core.tag.model.Tag;
+import com.ragab.booking.infrastructure.azure.EventImageService;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Import({EventService.class, EventMapper.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class EventServiceQueryCountTest extends PostgresRepositoryTest {
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private TestEntityManager entityManager;
+    @MockitoBean
+    private EventImageService eventImageService;
+
+    @Test
+    void listingLoadsPageCategoriesAndTagsInThreeStatements() {
+        Category music = entityManager.persist(new Category("Music"));
+        Category sports = entityManager.persist(new Category("Sports"));
+        Tag outdoor = entityManager.persist(Tag.builder().name("outdoor").build());
+        Tag family = entityManager.persist(Tag.builder().name("family").build());
+
+        for (int i = 0; i < 25; i++) {
+            entityManager.persist(Event.builder()
+                    .name("Event " + i)
+                    .eventDate(LocalDateTime.now().plusDays(i + 1))
+                    .price(BigDecimal.TEN)
+                    .venue("Main hall")
+                    .category(i % 2 == 0 ? music : sports)
+                    .tags(new HashSet<>(i % 3 == 0 ? Set.of(outdoor, family) : Set.of(outdoor)))
+                    .bookings(new HashSet<>())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        PageResponse<EventResponse> page = eventService.getEvents(EventFilter.NONE, 1, 10).body();
+
+        assertThat(page.content()).hasSize(10);
+        assertThat(page.totalElements()).isEqualTo(25);
+        assertThat(page.totalPages()).isEqualTo(3);
+        assertThat(page.content()).allSatisfy(event -> {
+            assertThat(event.category()).isNotNull();
+            assertThat(event.tags()).contains("outdoor");
+        });
+        // page select (category joined), count, and one batched tag select
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void validatorsAreReadInOneStatementAndMatchTheServedEvent() {
+        Event event = entityManager.persist(Event.builder()
+                .name("Concert")
+                .eventDate(LocalDateTime.now().plusDays(1))
+                .price(BigDecimal.TEN)
+                .venue("Main hall")
+                .capacity(10)
+                .category(entityManager.persist(new Category("Music")))
+                .tags(new HashSet<>())
+                .bookings(new HashSet<>())
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        EventValidators validators = eventService.getEventValidators(event.getId()).orElseThrow();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(validators.remaining()).isEqualTo(10);
+        assertThat(validators.lastModified()).isNotNull();
+
+        EventResponse served = eventService.getEvent(event.getId());
+        assertThat(validators.servedWith(served).eTag()).isEqualTo(validators.eTag());
+    }
+}
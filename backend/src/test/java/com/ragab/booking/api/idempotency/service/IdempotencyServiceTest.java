@@ -0,0 +1,164 @@
+package com.ragab.booking.api.idempotency.service;
+
+import com.ragab.booking.api.event.dto.EventRequest;
+import com.ragab.booking.common.exception.custom.IdempotencyKeyReusedException;
+import com.ragab.booking.common.exception.custom.booking.SoldOutException;
+import com.ragab.booking.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.transaction.annotation.Propagation.NOT_SUPPORTED;
+
+@Import(IdempotencyService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@TestPropertySource(properties = "application.idempotency.claim-timeout-seconds=3")
+@Transactional(propagation = NOT_SUPPORTED)
+class IdempotencyServiceTest extends PostgresRepositoryTest {
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${application.idempotency.claim-timeout-seconds}")
+    private long claimTimeoutSeconds;
+
+    private Integer userId;
+
+    @BeforeEach
+    void insertUser() {
+        userId = jdbcTemplate.queryForObject("""
+                INSERT INTO users (email, password_hash, firstname, lastname, date_of_birth, enabled)
+                VALUES ('retry@example.com', 'secret', 'Test', 'User', DATE '1990-01-01', TRUE)
+                RETURNING id
+                """, Integer.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE idempotency_keys, users RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void duplicatesInFlightWaitForTheFirstRun() {
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<Integer> firstRun = new CompletableFuture<>();
+
+        CompletableFuture<Integer> first = idempotencyService.execute(userId, "key-1", "book:1", () -> {
+            runs.incrementAndGet();
+            return firstRun;
+        });
+        CompletableFuture<Integer> retry = idempotencyService.execute(userId, "key-1", "book:1", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(99);
+        });
+        assertThat(retry).isNotDone();
+
+        firstRun.complete(42);
+
+        assertThat(first.join()).isEqualTo(42);
+        assertThat(retry.join()).isEqualTo(42);
+        assertThat(runs).hasValue(1);
+        assertThat(idempotencyService.execute(userId, "key-1", "book:1", () -> {
+            throw new AssertionError("replayed requests must not run");
+        }).join()).isEqualTo(42);
+        assertThat(jdbcTemplate.queryForObject("SELECT result_id FROM idempotency_keys", Integer.class)).isEqualTo(42);
+    }
+
+    @Test
+    void resultsRecordedByAnotherNodeAreReplayed() {
+        jdbcTemplate.update("""
+                INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, result_id)
+                VALUES (?, 'key-2', 'book:1', 7)
+                """, userId);
+
+        assertThat(idempotencyService.execute(userId, "key-2", "book:1", () -> {
+            throw new AssertionError("replayed requests must not run");
+        }).join()).isEqualTo(7);
+        assertThatThrownBy(() -> idempotencyService.execute(userId, "key-2", "book:2",
+                () -> CompletableFuture.completedFuture(8)))
+                .isInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void failedRunsReleaseTheKey() {
+        CompletableFuture<Integer> failed = idempotencyService.execute(userId, "key-3", "book:1", () -> {
+            throw new SoldOutException("Event is sold out");
+        });
+        assertThat(failed).isCompletedExceptionally();
+
+        assertThat(idempotencyService.execute(userId, "key-3", "book:1",
+                () -> CompletableFuture.completedFuture(5)).join()).isEqualTo(5);
+    }
+
+    @Test
+    void takenOverClaimsRunAsTheCaller() {
+        // claimed by a node that stops renewing it just before the claim timeout
+        jdbcTemplate.update("""
+                INSERT INTO idempotency_keys (user_id, idempotency_key, fingerprint, claimed_at)
+                VALUES (?, 'key-4', 'book:1', ?)
+                """, userId, LocalDateTime.now().minusSeconds(claimTimeoutSeconds).plusSeconds(1));
+        Authentication caller = new TestingAuthenticationToken("retry@example.com", null);
+        SecurityContextHolder.getContext().setAuthentication(caller);
+        try {
+            CompletableFuture<Integer> takenOver = idempotencyService.execute(userId, "key-4", "book:1", () ->
+                    CompletableFuture.completedFuture(
+                            SecurityContextHolder.getContext().getAuthentication() == caller ? 1 : 0));
+
+            assertThat(takenOver.join()).isEqualTo(1);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void runningClaimsAreRenewed() throws InterruptedException {
+        CompletableFuture<Integer> slowRun = new CompletableFuture<>();
+        idempotencyService.execute(userId, "key-5", "book:1", () -> slowRun);
+        jdbcTemplate.update("UPDATE idempotency_keys SET claimed_at = ?", LocalDateTime.now().minusHours(1));
+
+        long deadline = System.currentTimeMillis() + 3000;
+        while (claimAge() > claimTimeoutSeconds && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(claimAge()).isLessThan(claimTimeoutSeconds);
+
+        slowRun.complete(11);
+    }
+
+    @Test
+    void fingerprintsTellRequestBodiesApart() {
+        EventRequest request = new EventRequest("Concert", null, LocalDateTime.now().plusDays(1),
+                BigDecimal.TEN, "Main hall", "Music", 100, false);
+        EventRequest other = new EventRequest("Concert", null, request.eventDate(),
+                BigDecimal.ONE, "Main hall", "Music", 100, false);
+
+        assertThat(idempotencyService.fingerprint("create-event", request))
+                .isEqualTo(idempotencyService.fingerprint("create-event", request))
+                .isNotEqualTo(idempotencyService.fingerprint("create-event", other))
+                .matches("create-event:[0-9a-f]{64}");
+    }
+
+    private long claimAge() {
+        return jdbcTemplate.queryForObject(
+                "SELECT CAST(EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - claimed_at) AS BIGINT) FROM idempotency_keys",
+                Long.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ragab.booking.api.waitingroom.filter;
+
+import com.ragab.booking.config.security.jwt.DecodedToken;
+import com.ragab.booking.config.security.jwt.JwtService;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+class QueueHolderResolverTest {
+    private final JwtService jwtService = mock(JwtService.class);
+    private final QueueHolderResolver resolver = new QueueHolderResolver(jwtService);
+
+    @Test
+    void signedInUsersAreQueuedByTheirSubject() {
+        DecodedToken token = mock(DecodedToken.class);
+        when(token.subject()).thenReturn("alice@example.com");
+        when(jwtService.decode("valid")).thenReturn(token);
+
+        assertThat(resolver.resolve(request("Bearer valid"))).isEqualTo("user:alice@example.com");
+    }
+
+    @Test
+    void emptyOrInvalidTokensFallBackToTheClientAddress() {
+        // what the jjwt parser throws for each
+        when(jwtService.decode("")).thenThrow(new IllegalArgumentException("CharSequence cannot be null or empty."));
+        when(jwtService.decode("garbage")).thenThrow(new MalformedJwtException("Invalid compact JWT string"));
+
+        assertThat(resolver.resolve(request("Bearer "))).isEqualTo("ip:203.0.113.7");
+        assertThat(resolver.resolve(request("Bearer garbage"))).isEqualTo("ip:203.0.113.7");
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader(AUTHORIZATION, authorization);
+        return request;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ragab.booking.api.waitingroom.service;
+
+import com.ragab.booking.api.booking.service.FlashSaleEngine;
+import com.ragab.booking.api.waitingroom.dto.WaitingRoomStatus;
+import com.ragab.booking.common.exception.custom.InvalidQueueTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomServiceTest {
+    private final FlashSaleEngine flashSaleEngine = mock(FlashSaleEngine.class);
+    private final WaitingRoomService waitingRoomService = new WaitingRoomService(flashSaleEngine);
+
+    @BeforeEach
+    void setUp() {
+        when(flashSaleEngine.isHighDemand(42)).thenReturn(true);
+        ReflectionTestUtils.setField(waitingRoomService, "secretKey", "test-secret");
+        ReflectionTestUtils.setField(waitingRoomService, "admissionsPerSecond", 0.001);
+        ReflectionTestUtils.setField(waitingRoomService, "burst", 3);
+        ReflectionTestUtils.setField(waitingRoomService, "tokenTtlMinutes", 5L);
+        waitingRoomService.initialize();
+    }
+
+    @Test
+    void admitsABurstThenQueuesInOrder() {
+        List<WaitingRoomStatus> joined = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            joined.add(waitingRoomService.join(42, "user:a@example.com"));
+        }
+
+        assertThat(joined).extracting(WaitingRoomStatus::position).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(joined).extracting(WaitingRoomStatus::admitted).containsExactly(true, true, true, false, false);
+
+        WaitingRoomStatus last = waitingRoomService.check(joined.get(4).token(), 42, "user:a@example.com");
+        assertThat(last.admitted()).isFalse();
+        assertThat(last.ahead()).isEqualTo(1);
+        assertThat(waitingRoomService.check(joined.get(0).token(), 42, "user:a@example.com").admitted()).isTrue();
+    }
+
+    @Test
+    void rejectsForgedAndForeignTokens() {
+        String token = waitingRoomService.join(42, "user:a@example.com").token();
+        String forged = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> waitingRoomService.status(forged, "user:a@example.com")).isInstanceOf(InvalidQueueTokenException.class);
+        assertThatThrownBy(() -> waitingRoomService.check(token, 7, "user:a@example.com")).isInstanceOf(InvalidQueueTokenException.class);
+        assertThatThrownBy(() -> waitingRoomService.status(null, "user:a@example.com")).isInstanceOf(InvalidQueueTokenException.class);
+    }
+
+    @Test
+    void rejectsTokensPresentedBySomeoneElse() {
+        String token = waitingRoomService.join(42, "user:a@example.com").token();
+
+        assertThat(waitingRoomService.check(token, 42, "user:a@example.com").admitted()).isTrue();
+        assertThatThrownBy(() -> waitingRoomService.check(token, 42, "user:b@example.com"))
+                .isInstanceOf(InvalidQueueTokenException.class);
+        assertThatThrownBy(() -> waitingRoomService.status(token, "ip:10.0.0.1"))
+                .isInstanceOf(InvalidQueueTokenException.class);
+    }
+
+    @Test
+    void onlyHighDemandEventsHaveARoomAndItIsDroppedWhenTheyLeaveThatMode() {
+        assertThatThrownBy(() -> waitingRoomService.join(7, "user:a@example.com"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        String token = waitingRoomService.join(42, "user:a@example.com").token();
+        waitingRoomService.retireRooms();
+        assertThat(waitingRoomService.status(token, "user:a@example.com").admitted()).isTrue();
+
+        when(flashSaleEngine.isHighDemand(42)).thenReturn(false);
+        waitingRoomService.retireRooms();
+        assertThat(rooms()).isEmpty();
+    }
+
+    @Test
+    void roomsNobodyJoinedForATokenLifetimeAreDropped() {
+        waitingRoomService.join(42, "user:a@example.com");
+        ReflectionTestUtils.setField(waitingRoomService, "tokenTtlMinutes", 0L);
+        rooms().values().forEach(room -> ReflectionTestUtils.setField(room, "lastJoinedAt", 0L));
+
+        waitingRoomService.retireRooms();
+
+        assertThat(rooms()).isEmpty();
+    }
+
+    private Map<?, ?> rooms() {
+        return (Map<?, ?>) ReflectionTestUtils.getField(waitingRoomService, "rooms");
+    }
+}
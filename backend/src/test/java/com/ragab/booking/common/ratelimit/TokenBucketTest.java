@@ -0,0 +1,79 @@
+package com.ragab.booking.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void allowsTheBurstThenRefillsOneTokenPerPeriod() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(1), 0);
+
+        assertThat(bucket.tryTake(0)).isZero();
+        assertThat(bucket.tryTake(0)).isZero();
+        assertThat(bucket.tryTake(0)).isZero();
+        assertThat(bucket.tryTake(0)).isEqualTo(SECOND);
+        assertThat(bucket.tryTake(SECOND / 2)).isEqualTo(SECOND / 2);
+
+        assertThat(bucket.tryTake(SECOND)).isZero();
+        assertThat(bucket.tryTake(SECOND)).isPositive();
+    }
+
+    @Test
+    void idleTimeDoesNotBankMoreThanTheCapacity() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(1), 0);
+
+        long later = 60 * SECOND;
+        assertThat(bucket.tryTake(later)).isZero();
+        assertThat(bucket.tryTake(later)).isZero();
+        assertThat(bucket.tryTake(later)).isPositive();
+    }
+
+    /**
+     * Stands in for a benchmark: many threads racing on one bucket must never get more than
+     * its capacity, however the compare-and-set retries interleave.
+     */
+    @Test
+    void contendedBucketNeverHandsOutMoreThanItsCapacity() throws Exception {
+        int capacity = 1_000;
+        int threads = 16;
+        int attemptsPerThread = 10_000;
+        TokenBucket bucket = new TokenBucket(capacity, Duration.ofHours(1), System.nanoTime());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int taken = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (bucket.tryTake(System.nanoTime()) == 0) {
+                            taken++;
+                        }
+                    }
+                    return taken;
+                }));
+            }
+            start.countDown();
+            int taken = 0;
+            for (Future<Integer> future : futures) {
+                taken += future.get();
+            }
+            assertThat(taken).isEqualTo(capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
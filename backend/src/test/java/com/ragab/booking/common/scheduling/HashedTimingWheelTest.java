@@ -0,0 +1,60 @@
+package com.ragab.booking.common.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+    private final HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(Duration.ofMillis(100), 8, 0);
+
+    @Test
+    void expiresKeysOnTheirTickNeverBefore() {
+        wheel.schedule(1, 250);
+        wheel.schedule(2, 300);
+
+        assertThat(wheel.advance(299)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactlyInAnyOrder(1, 2);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keysFurtherOutThanOneRotationWaitForTheirRound() {
+        wheel.schedule(1, 1_000);
+
+        assertThat(wheel.advance(300)).isEmpty();
+        assertThat(wheel.advance(900)).isEmpty();
+        assertThat(wheel.advance(1_000)).containsExactly(1);
+    }
+
+    @Test
+    void catchesUpAfterAPauseLongerThanTheWheel() {
+        wheel.schedule(1, 100);
+        wheel.schedule(2, 2_000);
+        wheel.schedule(3, 5_000);
+
+        assertThat(wheel.advance(3_000)).containsExactlyInAnyOrder(1, 2);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledAndRescheduledKeysFollowTheirLatestDeadline() {
+        wheel.schedule(1, 200);
+        wheel.schedule(2, 200);
+        wheel.cancel(1);
+        wheel.schedule(2, 600);
+
+        assertThat(wheel.advance(500)).isEmpty();
+        assertThat(wheel.advance(600)).containsExactly(2);
+    }
+
+    @Test
+    void pastDeadlinesExpireOnTheNextTick() {
+        wheel.advance(1_000);
+        wheel.schedule(1, 0);
+
+        assertThat(wheel.advance(1_099)).isEmpty();
+        assertThat(wheel.advance(1_100)).containsExactly(1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ragab.booking.config.security.jwt;
+
+import com.ragab.booking.config.security.userdetails.UserPrincipal;
+import com.ragab.booking.core.user.model.Users;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+    private static final String SECRET_KEY = "c2VjcmV0LWtleS1mb3ItdGVzdHMtdGhhdC1pcy1sb25nLWVub3VnaC1mb3ItaHMyNTY=";
+
+    private final UserDetails alice = User.withUsername("alice@example.com")
+            .password("secret")
+            .authorities(new SimpleGrantedAuthority("ROLE_USER"))
+            .build();
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = jwtService(60_000);
+    }
+
+    @Test
+    void decodesSubjectAuthoritiesAndExpiryFromOneParse() {
+        DecodedToken token = jwtService.decode(jwtService.generateToken(Map.of("fullName", "Alice"), alice));
+
+        assertThat(token.subject()).isEqualTo("alice@example.com");
+        assertThat(token.authorities()).containsExactly("ROLE_USER");
+        assertThat(token.expiresAt()).isAfter(token.issuedAt());
+        assertThat(jwtService.isTokenValid(token, alice)).isTrue();
+        assertThat(jwtService.isTokenValid(token, User.withUserDetails(alice).username("bob@example.com").build()))
+                .isFalse();
+    }
+
+    @Test
+    void rejectsExpiredAndTamperedTokens() {
+        String expired = jwtService(-1_000).generateToken(alice);
+        assertThatThrownBy(() -> jwtService.decode(expired)).isInstanceOf(ExpiredJwtException.class);
+
+        String token = jwtService.generateToken(alice);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+        assertThatThrownBy(() -> jwtService.decode(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void principalRebuiltFromClaimsIsRevokedBySecurityVersionBump() {
+        Users user = Users.builder()
+                .id(7)
+                .email("carol@example.com")
+                .isAdmin(true)
+                .enabled(true)
+                .securityVersion(3)
+                .build();
+
+        DecodedToken token = jwtService.decode(jwtService.generateToken(new UserPrincipal(user)));
+        UserPrincipal principal = UserPrincipal.fromToken(token);
+
+        assertThat(principal.user().getId()).isEqualTo(7);
+        assertThat(principal.getUsername()).isEqualTo("carol@example.com");
+        assertThat(principal.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ADMIN");
+        assertThat(jwtService.isTokenValid(token, new UserPrincipal(user))).isTrue();
+
+        user.bumpSecurityVersion();
+        assertThat(jwtService.isTokenValid(token, new UserPrincipal(user))).isFalse();
+    }
+
+    @Test
+    void verifiedTokensAreServedFromMemoryUntilTheyExpireOrTheUserLogsOut() throws InterruptedException {
+        String token = jwtService.generateToken(alice);
+        DecodedToken first = jwtService.decode(token);
+        assertThat(jwtService.decode(token)).isSameAs(first);
+
+        jwtService.forgetVerifiedTokens("alice@example.com");
+        assertThat(jwtService.decode(token)).isNotSameAs(first).isEqualTo(first);
+
+        JwtService shortLived = jwtService(1_000);
+        String expiring = shortLived.generateToken(alice);
+        shortLived.decode(expiring);
+        Thread.sleep(1_100);
+        assertThatThrownBy(() -> shortLived.decode(expiring)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static JwtService jwtService(long expiration) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "SECRET_KEY", SECRET_KEY);
+        ReflectionTestUtils.setField(service, "verifiedCacheMaxSize", 100L);
+        service.init();
+        return service;
+    }
+}
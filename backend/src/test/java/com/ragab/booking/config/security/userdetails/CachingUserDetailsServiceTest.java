@@ -0,0 +1,74 @@
+package com.ragab.booking.config.security.userdetails;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.ragab.booking.core.user.model.Users;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingUserDetailsServiceTest {
+    private static final long TTL_SECONDS = 60;
+    private static final String EMAIL = "alice@example.com";
+
+    private final UserDetailsServiceImpl delegate = mock(UserDetailsServiceImpl.class);
+    private final AtomicLong nanos = new AtomicLong();
+    private CachingUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CachingUserDetailsService(delegate, null);
+        ReflectionTestUtils.setField(service, "maxSize", 100L);
+        ReflectionTestUtils.setField(service, "ttlSeconds", TTL_SECONDS);
+        ReflectionTestUtils.setField(service, "ticker", (Ticker) nanos::get);
+        service.init();
+    }
+
+    @Test
+    void servesFromCacheUntilInvalidated() {
+        when(delegate.loadUserByUsername(EMAIL)).thenReturn(principal(true, false), principal(true, true));
+
+        assertThat(service.loadUserByUsername(EMAIL).getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_USER");
+        assertThat(service.loadUserByUsername(EMAIL).getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_USER");
+        verify(delegate, times(1)).loadUserByUsername(EMAIL);
+
+        service.invalidate(EMAIL);
+        assertThat(service.loadUserByUsername(EMAIL).getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void missedInvalidationIsNeverServedPastTheStalenessBound() {
+        // the user is disabled on another node and its notification never arrives
+        when(delegate.loadUserByUsername(EMAIL)).thenReturn(principal(true, true), principal(false, false));
+        assertThat(service.loadUserByUsername(EMAIL).isEnabled()).isTrue();
+
+        long bound = Duration.ofSeconds(TTL_SECONDS).toNanos();
+        nanos.set(bound - 1);
+        assertThat(service.loadUserByUsername(EMAIL).isEnabled()).isTrue();
+
+        nanos.set(bound);
+        assertThat(service.loadUserByUsername(EMAIL).isEnabled()).isFalse();
+        assertThat(service.loadUserByUsername(EMAIL).getAuthorities()).extracting(Object::toString)
+                .containsExactly("ROLE_USER");
+    }
+
+    private static UserPrincipal principal(boolean enabled, boolean admin) {
+        return new UserPrincipal(Users.builder()
+                .id(1)
+                .email(EMAIL)
+                .enabled(enabled)
+                .isAdmin(admin)
+                .build());
+    }
+}
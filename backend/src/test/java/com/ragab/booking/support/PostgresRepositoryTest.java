@@ -0,0 +1,43 @@
+package com.ragab.booking.support;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.AuditorAware;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Optional;
+
+import static org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace.NONE;
+
+/**
+ * Base class for repository tests that need the real Flyway schema.
+ * Skipped when no Docker daemon is available.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.user=test",
+        "spring.flyway.password=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(PostgresRepositoryTest.AuditConfig.class)
+public abstract class PostgresRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @TestConfiguration
+    static class AuditConfig {
+        @Bean
+        public AuditorAware<Integer> auditorAware() {
+            return () -> Optional.of(1);
+        }
+    }
+}